@@ -0,0 +1,116 @@
+package dev.mccue.magicbean.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures code generated by the processor against the hand written
+ * equivalent in {@link HandWrittenPoint}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BeanBenchmark {
+    int x = 1;
+    long y = 2;
+    double weight = 3.5;
+    String label = "point";
+    List<String> tags = List.of("a", "b", "c");
+
+    GeneratedPoint generated;
+    GeneratedPoint generatedCopy;
+    HandWrittenPoint handWritten;
+    HandWrittenPoint handWrittenCopy;
+
+    @Setup
+    public void setup() {
+        generated = GeneratedPoint.of(x, y, weight, label, tags);
+        generatedCopy = GeneratedPoint.of(x, y, weight, label, tags);
+        handWritten = HandWrittenPoint.of(x, y, weight, label, tags);
+        handWrittenCopy = HandWrittenPoint.of(x, y, weight, label, tags);
+    }
+
+    @Benchmark
+    public void generatedGetters(Blackhole bh) {
+        bh.consume(generated.getX());
+        bh.consume(generated.getY());
+        bh.consume(generated.getWeight());
+        bh.consume(generated.getLabel());
+        bh.consume(generated.getTags());
+    }
+
+    @Benchmark
+    public void handWrittenGetters(Blackhole bh) {
+        bh.consume(handWritten.getX());
+        bh.consume(handWritten.getY());
+        bh.consume(handWritten.getWeight());
+        bh.consume(handWritten.getLabel());
+        bh.consume(handWritten.getTags());
+    }
+
+    @Benchmark
+    public GeneratedPoint generatedSetters() {
+        generated.setX(x);
+        generated.setY(y);
+        generated.setWeight(weight);
+        generated.setLabel(label);
+        generated.setTags(tags);
+        return generated;
+    }
+
+    @Benchmark
+    public HandWrittenPoint handWrittenSetters() {
+        handWritten.setX(x);
+        handWritten.setY(y);
+        handWritten.setWeight(weight);
+        handWritten.setLabel(label);
+        handWritten.setTags(tags);
+        return handWritten;
+    }
+
+    @Benchmark
+    public boolean generatedEquals() {
+        return generated.equals(generatedCopy);
+    }
+
+    @Benchmark
+    public boolean handWrittenEquals() {
+        return handWritten.equals(handWrittenCopy);
+    }
+
+    @Benchmark
+    public int generatedHashCode() {
+        return generated.hashCode();
+    }
+
+    @Benchmark
+    public int handWrittenHashCode() {
+        return handWritten.hashCode();
+    }
+
+    @Benchmark
+    public String generatedToString() {
+        return generated.toString();
+    }
+
+    @Benchmark
+    public String handWrittenToString() {
+        return handWritten.toString();
+    }
+
+    @Benchmark
+    public GeneratedPoint generatedOf() {
+        return GeneratedPoint.of(x, y, weight, label, tags);
+    }
+
+    @Benchmark
+    public HandWrittenPoint handWrittenOf() {
+        return HandWrittenPoint.of(x, y, weight, label, tags);
+    }
+}
@@ -0,0 +1,18 @@
+package dev.mccue.magicbean.benchmarks;
+
+import dev.mccue.magicbean.MagicBean;
+
+import java.util.List;
+
+@MagicBean(
+        allArgsStaticFactory = true,
+        equalsAndHashCode = true,
+        toString_ = true
+)
+public final class GeneratedPoint extends GeneratedPointBeanOps {
+    int x;
+    long y;
+    double weight;
+    String label;
+    List<String> tags;
+}
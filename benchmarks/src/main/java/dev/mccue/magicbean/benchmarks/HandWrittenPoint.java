@@ -0,0 +1,92 @@
+package dev.mccue.magicbean.benchmarks;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * What someone would write by hand instead of using {@link GeneratedPoint}.
+ */
+public final class HandWrittenPoint {
+    private int x;
+    private long y;
+    private double weight;
+    private String label;
+    private List<String> tags;
+
+    public static HandWrittenPoint of(int x, long y, double weight, String label, List<String> tags) {
+        var o = new HandWrittenPoint();
+        o.x = x;
+        o.y = y;
+        o.weight = weight;
+        o.label = label;
+        o.tags = tags;
+        return o;
+    }
+
+    public int getX() {
+        return x;
+    }
+
+    public void setX(int x) {
+        this.x = x;
+    }
+
+    public long getY() {
+        return y;
+    }
+
+    public void setY(long y) {
+        this.y = y;
+    }
+
+    public double getWeight() {
+        return weight;
+    }
+
+    public void setWeight(double weight) {
+        this.weight = weight;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public void setLabel(String label) {
+        this.label = label;
+    }
+
+    public List<String> getTags() {
+        return tags;
+    }
+
+    public void setTags(List<String> tags) {
+        this.tags = tags;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof HandWrittenPoint other
+                && x == other.x
+                && y == other.y
+                && Double.compare(weight, other.weight) == 0
+                && Objects.equals(label, other.label)
+                && Objects.equals(tags, other.tags);
+    }
+
+    @Override
+    public int hashCode() {
+        int h = 1;
+        h = 31 * h + x;
+        h = 31 * h + Long.hashCode(y);
+        h = 31 * h + Double.hashCode(weight);
+        h = 31 * h + Objects.hashCode(label);
+        h = 31 * h + Objects.hashCode(tags);
+        return h;
+    }
+
+    @Override
+    public String toString() {
+        return "HandWrittenPoint[x=" + x + ", y=" + y + ", weight=" + weight
+                + ", label=" + label + ", tags=" + tags + "]";
+    }
+}
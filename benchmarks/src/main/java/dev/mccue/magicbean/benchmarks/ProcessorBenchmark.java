@@ -0,0 +1,100 @@
+package dev.mccue.magicbean.benchmarks;
+
+import dev.mccue.magicbean.processor.AnnotationProcessor;
+import org.openjdk.jmh.annotations.*;
+
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long the processor takes to handle a large number of synthetic beans.
+ * javac only runs annotation processing, so the time is dominated by parsing the
+ * beans and generating their code rather than by compiling it.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProcessorBenchmark {
+    @Param("10000")
+    int beans;
+
+    Path sourceDir;
+    Path outputDir;
+    List<File> sources;
+
+    @Setup
+    public void setup() throws IOException {
+        sourceDir = Files.createTempDirectory("magic-bean-sources");
+        outputDir = Files.createTempDirectory("magic-bean-output");
+        sources = new ArrayList<>();
+        var packageDir = Files.createDirectories(sourceDir.resolve("synthetic"));
+        for (int i = 0; i < beans; i++) {
+            var file = packageDir.resolve("Bean" + i + ".java");
+            Files.writeString(file, """
+                    package synthetic;
+
+                    import dev.mccue.magicbean.MagicBean;
+
+                    import java.util.List;
+
+                    @MagicBean(
+                            allArgsStaticFactory = true,
+                            equalsAndHashCode = true,
+                            toString_ = true
+                    )
+                    public final class Bean%d extends Bean%dBeanOps {
+                        int id;
+                        long timestamp;
+                        double amount;
+                        boolean active;
+                        String name;
+                        List<String> tags;
+                    }
+                    """.formatted(i, i));
+            sources.add(file.toFile());
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        for (var dir : List.of(sourceDir, outputDir)) {
+            try (var paths = Files.walk(dir)) {
+                paths.sorted(Comparator.reverseOrder())
+                        .map(Path::toFile)
+                        .forEach(File::delete);
+            }
+        }
+    }
+
+    @Benchmark
+    public boolean process() throws IOException {
+        var compiler = ToolProvider.getSystemJavaCompiler();
+        try (var fileManager = compiler.getStandardFileManager(null, null, null)) {
+            var task = compiler.getTask(
+                    null,
+                    fileManager,
+                    null,
+                    List.of(
+                            "-proc:only",
+                            "-implicit:none",
+                            "-s", outputDir.toString(),
+                            "-d", outputDir.toString()
+                    ),
+                    null,
+                    fileManager.getJavaFileObjectsFromFiles(sources)
+            );
+            task.setProcessors(List.of(new AnnotationProcessor()));
+            return task.call();
+        }
+    }
+}
@@ -43,6 +43,7 @@ import java.lang.annotation.Target;
  *
  * <p>
  * Then an implementation of equals/hashCode may be generated which is based on every non-static field.
+ * Primitive fields are compared without boxing and arrays are compared by their contents.
  * Note that if you are using this for making a JPA Entity or similar class, you likely do not
  * want to do this.
  *
@@ -55,7 +56,7 @@ import java.lang.annotation.Target;
  * </p>
  */
 @Target({ElementType.TYPE})
-@Retention(RetentionPolicy.SOURCE)
+@Retention(RetentionPolicy.CLASS)
 public @interface MagicBean {
     /**
      * @return Whether to generate an all args static factory method.
@@ -67,15 +68,417 @@ public @interface MagicBean {
      */
     boolean equalsAndHashCode() default false;
 
+    /**
+     * Remembers the result of hashCode until the next call to a generated setter. Changes made
+     * by assigning fields directly or by mutating the objects held in fields will not be seen,
+     * so this should only be used on beans which are updated through their setters.
+     *
+     * <p>
+     * Requires {@link #equalsAndHashCode()}.
+     *
+     * @return Whether to cache the generated hash code.
+     */
+    boolean cacheHashCode() default false;
+
     /**
      * @return Whether to generate a basic toString.
      */
     boolean toString_() default false;
 
+    /**
+     * Generates {@code appendTo(StringBuilder)} and {@code appendTo(Appendable)} methods which
+     * write the same text as the generated toString into an existing buffer. If toString is
+     * also generated, it will delegate to these methods.
+     *
+     * @return Whether to generate appendTo methods.
+     */
+    boolean appendTo() default false;
+
+    /**
+     * Generates {@code writeTo} and {@code readFrom} methods which encode every field
+     * to and from a {@link java.io.DataOutput}/{@link java.io.DataInput} or a
+     * {@link java.nio.ByteBuffer}.
+     *
+     * <p>
+     * Fields must be primitives, boxed primitives, Strings, enums or byte arrays.
+     * ints and longs are written as variable length integers and enums are written
+     * by ordinal, so reordering the constants of an enum will change how existing
+     * data is read. Fields are read back through their setters.
+     *
+     * @return Whether to generate a binary codec.
+     */
+    boolean binaryCodec() default false;
+
+    /**
+     * Implements {@link java.io.Externalizable} using the binary codec. Requires
+     * {@link #binaryCodec()} and that the class be public with a public zero arg constructor.
+     *
+     * @return Whether the generated class should implement Externalizable.
+     */
+    boolean externalizable() default false;
+
+    /**
+     * Generates a companion class named {@code [...]Columns} which stores many instances
+     * as parallel arrays, one per field, along with a cursor that can be moved between rows
+     * without allocating. Every field must be a primitive or a String.
+     *
+     * @return Whether to generate a columnar collection.
+     */
+    boolean columns() default false;
+
+    /**
+     * Records which fields have been set through the generated setters, and generates
+     * {@code dirtyFields()}, {@code clearDirty()} and {@code diff(other)} methods. Fields
+     * are reported as a {@code long} where bit i stands for the i-th instance field in
+     * declaration order, so at most 64 instance fields are supported.
+     *
+     * @return Whether to track which fields have been set.
+     */
+    boolean dirtyTracking() default false;
+
+    /**
+     * Generates a {@code copyFrom(other)} method which copies every field from another
+     * instance through the setters, along with a static {@code copyOf(other)} method.
+     * Requires a non-private zero arg constructor.
+     *
+     * @return Whether to generate copy methods.
+     */
+    boolean copyMethods() default false;
+
+    /**
+     * Makes the copy methods clone arrays and copy fields declared as a {@code List},
+     * {@code Set} or {@code Map}, or one of their standard {@code java.util} implementations,
+     * into new ones. Sorted sets and maps keep their comparator. Other collections, and the
+     * elements themselves, are still shared. Requires {@link #copyMethods()}.
+     *
+     * @return Whether copies should not share arrays or collections with the original.
+     */
+    boolean deepCopy() default false;
+
+    /**
+     * Generates a {@code reset()} method which sets every instance field back to its
+     * default value through the setters.
+     *
+     * @return Whether to generate a reset method.
+     */
+    boolean reset() default false;
+
+    /**
+     * Generates a companion record named {@code [...]Record} with a component for every
+     * instance field, in declaration order, along with {@code toRecord()} and a static
+     * {@code fromRecord(record)} method. Requires a non-private zero arg constructor.
+     *
+     * @return Whether to generate conversions to and from a record.
+     */
+    boolean recordSnapshot() default false;
+
+    /**
+     * Generates an {@code asMap()} method which returns a live {@code Map<String, Object>}
+     * view of the instance fields. Reads and writes dispatch on the field name to the getters
+     * and setters, so nothing is copied. Putting a value of the wrong type throws
+     * {@link ClassCastException} and putting null for a primitive field throws
+     * {@link NullPointerException}, as {@link java.util.Map#put} allows.
+     *
+     * @return Whether to generate a map view.
+     */
+    boolean mapView() default false;
+
+    /**
+     * Generates a static {@code fromRow(ResultSet)} method which reads every instance field
+     * from the column at its position, and a {@code bind(PreparedStatement, offset)} method
+     * which binds every instance field to the parameters after the offset. Primitives use
+     * the matching primitive getters and setters.
+     *
+     * <p>
+     * Fields must be primitives other than char, their boxed types, Strings, byte arrays,
+     * enums, BigDecimals or one of LocalDate, LocalTime, LocalDateTime and OffsetDateTime.
+     * Enums are stored by name. Requires a non-private zero arg constructor.
+     *
+     * @return Whether to generate JDBC methods.
+     */
+    boolean jdbc() default false;
+
+    /**
+     * Generates a {@code hash64()} method which mixes the canonical value of every instance
+     * field into a 64 bit hash which does not change between JVM runs. Unlike hashCode, it
+     * does not depend on identity hash codes, so it is suitable for sharding and cache keys.
+     *
+     * <p>
+     * Fields must be primitives, boxed primitives, Strings, enums, primitive arrays or
+     * types with a public {@code long hash64()} method, such as other magic beans with
+     * this option. Enums are hashed by name.
+     *
+     * @return Whether to generate a stable 64 bit hash.
+     */
+    boolean hash64() default false;
+
+    /**
+     * Packs every instance field, in declaration order, into a fixed number of bytes.
+     * Generates {@code [...]_OFFSET} and {@code FIXED_SIZE} constants, {@code writeAt} and
+     * {@code readAt} methods which use absolute indices of a {@link java.nio.ByteBuffer},
+     * and a companion class named {@code [...]View} which reads records in place, for
+     * example from a memory mapped file. Every instance field must be a primitive.
+     *
+     * @return Whether to generate a fixed layout.
+     */
+    boolean fixedLayout() default false;
+
+    /**
+     * Counts every call to a generated setter with a {@link java.util.concurrent.atomic.LongAdder}
+     * per field, shared by every instance, and generates a static {@code writeCounts()} method
+     * which reports them. The atomic methods generated for {@link #accessMode()} are counted
+     * too, once per successful write.
+     *
+     * @return Whether to count writes to each field.
+     */
+    boolean writeCounters() default false;
+
+    /**
+     * Emits a JDK Flight Recorder event named {@code [...].Set} from every generated setter,
+     * including the atomic methods generated for {@link #accessMode()}, and a
+     * {@code [...].Create} event from the static factory method. The events are
+     * disabled unless turned on in the recording settings.
+     *
+     * @return Whether to emit Flight Recorder events.
+     */
+    boolean flightRecorderEvents() default false;
+
+    /**
+     * Generates a companion class named {@code [...]Pool} which hands out reset instances
+     * from a bounded free list kept per thread. Requires {@link #reset()} and a non-private
+     * zero arg constructor.
+     *
+     * @return Whether to generate an object pool.
+     */
+    boolean pool() default false;
+
+    /**
+     * Generates a companion class named {@code [...]Properties} which lists the name and
+     * type of every field and can get or set them by index, without reflection.
+     *
+     * @return Whether to generate a property table.
+     */
+    boolean propertyTable() default false;
+
+    /**
+     * Generates a {@code Comparator} constant for every primitive or {@code Comparable} field,
+     * named {@code BY_[...]} after the field. Primitives are compared without boxing and
+     * nulls sort first.
+     *
+     * @return Whether to generate comparator constants.
+     */
+    boolean comparators() default false;
+
+    /**
+     * Generates a constant for every instance field, named after the field in upper snake case,
+     * which gets and sets it through the getter and setter. int, long and double fields get
+     * lenses implementing the primitive specializations, like {@code ToIntFunction} and
+     * {@code ObjIntConsumer}, so they can be used without boxing. Other fields get lenses
+     * implementing {@code Function} and {@code BiConsumer}.
+     *
+     * @return Whether to generate lens constants.
+     */
+    boolean lenses() default false;
+
+    /**
+     * The names of the fields to compare by, in order, when implementing {@link Comparable}.
+     * Each field must be a primitive or {@code Comparable}. Nulls sort first.
+     *
+     * @return The fields to compare by, or an empty array to not implement Comparable.
+     */
+    String[] compareBy() default {};
+
+    /**
+     * Generates a {@code writeJson(Appendable)} method which writes every field as a JSON
+     * object and {@code readJson} methods which read them back through the setters.
+     *
+     * <p>
+     * Fields must be primitives, boxed primitives, Strings or enums. Enums are written by name,
+     * and non-finite floating point values are written as the strings {@code "NaN"},
+     * {@code "Infinity"} and {@code "-Infinity"}.
+     *
+     * @return Whether to generate JSON methods.
+     */
+    boolean json() default false;
+
+    /**
+     * How the generated getters and setters read and write fields. Can be overridden for
+     * a single field with {@link Access}.
+     *
+     * <p>
+     * Fields which do not use {@link AccessMode#PLAIN} are accessed through a
+     * {@link java.lang.invoke.VarHandle} and also get {@code compareAndSet[...]} methods,
+     * {@code getAndAdd[...]} methods if they are numeric primitives, and {@code update[...]}
+     * methods if they are ints, longs, doubles or references. These atomic methods always
+     * have volatile semantics. Other generated methods, like equals and toString, still use
+     * plain reads. Can not be combined with {@link #cacheHashCode()} or
+     * {@link #dirtyTracking()}.
+     *
+     * @return The access mode for every instance field.
+     */
+    AccessMode accessMode() default AccessMode.PLAIN;
+
+    /**
+     * Reports the estimated size and field layout of an instance as a compiler note. The
+     * estimate assumes a 64 bit JVM with compressed oops and class pointers, and does not
+     * include fields inherited from {@link #extend()}.
+     *
+     * @return Whether to report the estimated memory footprint.
+     */
+    boolean footprintReport() default false;
+
+    /**
+     * Warns about boxed primitive fields and about instances estimated to be larger than
+     * a 64 byte cache line.
+     *
+     * @return Whether to warn about memory footprint.
+     */
+    boolean footprintWarnings() default false;
+
+    /**
+     * Makes the generated setters, and so the static factory method, throw an
+     * {@link IllegalArgumentException} when given a value which violates the constraints
+     * on its field. The atomic methods generated for {@link #accessMode()} are not checked.
+     *
+     * @return Whether to check constraints in setters.
+     */
+    boolean validateInSetters() default false;
+
     /**
      * @return A class for the generated abstract class to extend. Does not support
      * providing type parameters to generic classes or extending classes which do not have a
      * zero arg constructor.
      */
     Class<?> extend() default Object.class;
+
+    /**
+     * The memory ordering used when reading and writing a field. Each mode corresponds
+     * to a pair of {@link java.lang.invoke.VarHandle} methods.
+     */
+    enum AccessMode {
+        /**
+         * Plain field reads and writes.
+         */
+        PLAIN,
+
+        /**
+         * {@code getOpaque} and {@code setOpaque}.
+         */
+        OPAQUE,
+
+        /**
+         * {@code getAcquire} and {@code setRelease}.
+         */
+        ACQUIRE_RELEASE,
+
+        /**
+         * {@code getVolatile} and {@code setVolatile}.
+         */
+        VOLATILE
+    }
+
+    /**
+     * Marks an instance field whose value is computed by a method of the bean the first
+     * time the generated getter is called. Calling the setter replaces the computed value.
+     * equals, hashCode, hash64, the comparators, diff and the copy and serialization methods
+     * go through the getter and so compute the value. toString reads the field directly and
+     * does not.
+     */
+    @Target({ElementType.FIELD})
+    @Retention(RetentionPolicy.CLASS)
+    @interface Lazy {
+        /**
+         * @return The name of a non-private, zero arg instance method which computes the value.
+         */
+        String value();
+
+        /**
+         * @return Whether to use double-checked locking so that the value is computed at most
+         * once when the getter is called from several threads.
+         */
+        boolean threadSafe() default false;
+    }
+
+    /**
+     * Constrains a reference field to not be null. Any field with a constraint causes a
+     * {@code validate()} method to be generated, which returns a description of every
+     * violated constraint.
+     */
+    @Target({ElementType.FIELD})
+    @Retention(RetentionPolicy.CLASS)
+    @interface NotNull {
+    }
+
+    /**
+     * Constrains a numeric field, or its boxed equivalent, to be at least a value. Nulls
+     * are allowed.
+     */
+    @Target({ElementType.FIELD})
+    @Retention(RetentionPolicy.CLASS)
+    @interface Min {
+        /**
+         * @return The smallest allowed value.
+         */
+        long value();
+    }
+
+    /**
+     * Constrains a numeric field, or its boxed equivalent, to be at most a value. Nulls
+     * are allowed.
+     */
+    @Target({ElementType.FIELD})
+    @Retention(RetentionPolicy.CLASS)
+    @interface Max {
+        /**
+         * @return The largest allowed value.
+         */
+        long value();
+    }
+
+    /**
+     * Constrains the length of a String or array, or the size of a collection or map.
+     * Nulls are allowed.
+     */
+    @Target({ElementType.FIELD})
+    @Retention(RetentionPolicy.CLASS)
+    @interface Size {
+        /**
+         * @return The smallest allowed size.
+         */
+        int min() default 0;
+
+        /**
+         * @return The largest allowed size.
+         */
+        int max() default Integer.MAX_VALUE;
+    }
+
+    /**
+     * Marks a single int or long instance field as the key of a generated companion class
+     * named {@code [...]Index}, a hash map from that key to instances which stores the keys
+     * without boxing.
+     */
+    @Target({ElementType.FIELD})
+    @Retention(RetentionPolicy.CLASS)
+    @interface IndexKey {
+        /**
+         * @return Whether changing the key through the generated setter should move the
+         * instance within the index it was put in. Each instance can then be in at most one index.
+         * A tracked key must use the PLAIN access mode. Resetting an instance removes it from
+         * its index.
+         */
+        boolean tracked() default false;
+    }
+
+    /**
+     * Overrides {@link MagicBean#accessMode()} for a single instance field.
+     */
+    @Target({ElementType.FIELD})
+    @Retention(RetentionPolicy.CLASS)
+    @interface Access {
+        /**
+         * @return The access mode for the field.
+         */
+        AccessMode value();
+    }
 }
@@ -6,16 +6,27 @@ import javax.annotation.processing.AbstractProcessor;
 import javax.annotation.processing.RoundEnvironment;
 import javax.lang.model.SourceVersion;
 import javax.lang.model.element.*;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
 import javax.lang.model.type.MirroredTypeException;
+import javax.lang.model.type.PrimitiveType;
 import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
 import javax.lang.model.util.ElementFilter;
 import javax.tools.Diagnostic;
 import java.io.IOException;
+import java.io.Writer;
 import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Semaphore;
 import java.util.function.BiFunction;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 /**
@@ -29,14 +40,56 @@ public final class AnnotationProcessor extends AbstractProcessor {
 
     @Override
     public Set<String> getSupportedAnnotationTypes() {
-        return Set.of("dev.mccue.magicbean.MagicBean");
+        return Set.of(
+                "dev.mccue.magicbean.MagicBean",
+                "dev.mccue.magicbean.MagicBean.Access",
+                "dev.mccue.magicbean.MagicBean.Lazy",
+                "dev.mccue.magicbean.MagicBean.NotNull",
+                "dev.mccue.magicbean.MagicBean.Min",
+                "dev.mccue.magicbean.MagicBean.Max",
+                "dev.mccue.magicbean.MagicBean.Size",
+                "dev.mccue.magicbean.MagicBean.IndexKey"
+        );
     }
 
     private String pascal(String s) {
         return Character.toUpperCase(s.charAt(0)) + s.substring(1);
     }
 
-    private String staticFactoryMethod(Name className, List<VariableElement> fields) {
+    private static final Set<String> BOOLEAN_TYPES = Set.of("boolean", "java.lang.Boolean");
+
+    private String getterName(String fieldType, String fieldName) {
+        return (BOOLEAN_TYPES.contains(fieldType) ? "is" : "get") + pascal(fieldName);
+    }
+
+    private String getterName(VariableElement field) {
+        return getterName(field.asType().toString(), field.getSimpleName().toString());
+    }
+
+    private String setterName(VariableElement field) {
+        return "set" + pascal(field.getSimpleName().toString());
+    }
+
+    /**
+     * Opens a writer for a generated source file. The annotated class is recorded as the only
+     * originating element, which is what lets build tools treat this processor as isolating.
+     */
+    private Writer openSourceFile(String packageName, String simpleName, Element element) throws IOException {
+        return this.processingEnv.getFiler().createSourceFile(
+                (packageName == null ? "" : packageName + ".") + simpleName,
+                element
+        ).openWriter();
+    }
+
+    private void writeSourceFile(String packageName, String simpleName, String source, Element element) {
+        try (var writer = openSourceFile(packageName, simpleName, element)) {
+            writer.append(source);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private String staticFactoryMethod(Name className, List<VariableElement> fields, boolean flightRecorderEvents) {
         var staticFactoryMethod = new StringBuilder();
         staticFactoryMethod.append("""
                     /**
@@ -57,6 +110,10 @@ public final class AnnotationProcessor extends AbstractProcessor {
             }
         }
         staticFactoryMethod.append("\n    ) {\n");
+        if (flightRecorderEvents) {
+            staticFactoryMethod.append("        var event$ = new CreateEvent$();\n");
+            staticFactoryMethod.append("        event$.begin();\n");
+        }
         staticFactoryMethod.append("        var o$ = new %s();\n".formatted(className));
         for (var field : fields) {
             staticFactoryMethod.append("        o$.set%s(%s);\n".formatted(
@@ -64,12 +121,15 @@ public final class AnnotationProcessor extends AbstractProcessor {
                     field.getSimpleName()
             ));
         }
+        if (flightRecorderEvents) {
+            staticFactoryMethod.append("        event$.commit();\n");
+        }
         staticFactoryMethod.append("        return o$;\n");
         staticFactoryMethod.append("    }\n\n");
         return staticFactoryMethod.toString();
     }
 
-    private String equalsAndHashCodeMethods(String selfExpr, Name className, List<VariableElement> fields) {
+    private String equalsAndHashCodeMethods(String selfExpr, Name className, List<VariableElement> fields, boolean cacheHashCode) {
         var equalsAndHashCodeMethods = new StringBuilder();
         equalsAndHashCodeMethods.append("""
                             @Override
@@ -94,24 +154,84 @@ public final class AnnotationProcessor extends AbstractProcessor {
                             }
                         
                         """.formatted(
-                        createHashCodeMethodBody(selfExpr, fields)
+                        cacheHashCode
+                                ? createCachedHashCodeMethodBody(selfExpr, fields)
+                                : createHashCodeMethodBody(selfExpr, fields)
                 )
         );
         return equalsAndHashCodeMethods.toString();
     }
 
+    private boolean isEnum(TypeMirror type) {
+        return type instanceof DeclaredType declaredType
+                && declaredType.asElement().getKind() == ElementKind.ENUM;
+    }
+
+    private boolean isNestedArray(TypeMirror type) {
+        return type instanceof ArrayType arrayType
+                && arrayType.getComponentType().getKind() == TypeKind.ARRAY;
+    }
+
+    /**
+     * Rough relative cost of comparing a field, used to order the checks in equals
+     * so that the cheap ones get a chance to short circuit the expensive ones.
+     */
+    private int equalsCost(VariableElement field) {
+        var type = field.asType();
+        return switch (type.getKind()) {
+            case BOOLEAN, BYTE, SHORT, CHAR, INT, LONG -> 0;
+            case FLOAT, DOUBLE -> 1;
+            case ARRAY -> 3;
+            default -> isEnum(type) ? 0 : 2;
+        };
+    }
+
+    private String fieldEqualsExpression(String left, String right, VariableElement field) {
+        var type = field.asType();
+        return switch (type.getKind()) {
+            case BOOLEAN, BYTE, SHORT, CHAR, INT, LONG -> "%s == %s".formatted(left, right);
+            case FLOAT -> "Float.compare(%s, %s) == 0".formatted(left, right);
+            case DOUBLE -> "Double.compare(%s, %s) == 0".formatted(left, right);
+            case ARRAY -> (isNestedArray(type)
+                    ? "java.util.Arrays.deepEquals(%s, %s)"
+                    : "java.util.Arrays.equals(%s, %s)").formatted(left, right);
+            default -> (isEnum(type)
+                    ? "%s == %s"
+                    : "java.util.Objects.equals(%s, %s)").formatted(left, right);
+        };
+    }
+
+    private String fieldHashCodeExpression(String value, VariableElement field) {
+        var type = field.asType();
+        return switch (type.getKind()) {
+            case BOOLEAN -> "Boolean.hashCode(%s)".formatted(value);
+            case BYTE -> "Byte.hashCode(%s)".formatted(value);
+            case SHORT -> "Short.hashCode(%s)".formatted(value);
+            case CHAR -> "Character.hashCode(%s)".formatted(value);
+            case INT -> value;
+            case LONG -> "Long.hashCode(%s)".formatted(value);
+            case FLOAT -> "Float.hashCode(%s)".formatted(value);
+            case DOUBLE -> "Double.hashCode(%s)".formatted(value);
+            case ARRAY -> (isNestedArray(type)
+                    ? "java.util.Arrays.deepHashCode(%s)"
+                    : "java.util.Arrays.hashCode(%s)").formatted(value);
+            default -> "java.util.Objects.hashCode(%s)".formatted(value);
+        };
+    }
+
     private String createEqualsExpression(String selfExpr, List<VariableElement> fields) {
         if (fields.isEmpty()) {
             return "true";
         }
         else {
             return fields.stream()
-                    .map(field -> "java.util.Objects.equals(%s.%s, other.%s)".formatted(
-                            selfExpr,
-                            field.getSimpleName(),
-                            field.getSimpleName()
+                    .sorted(Comparator.comparingInt(this::equalsCost))
+                    .map(field -> fieldEqualsExpression(
+                            fieldValue(selfExpr, field),
+                            fieldValue("other", field),
+                            field
                     ))
-                    .collect(Collectors.joining(" && \n                   "));
+                    .collect(Collectors.joining(" &&\n                   "));
         }
     }
 
@@ -120,274 +240,4124 @@ public final class AnnotationProcessor extends AbstractProcessor {
             return "return 1;";
         }
         else {
-            return """
-                    return java.util.Objects.hash(
-                              %s
-                            );""".formatted(
-                    fields.stream()
-                            .map(field -> "      " + selfExpr + "." + field.getSimpleName())
-                            .collect(Collectors.joining(",\n          ")));
+            var body = new StringBuilder();
+            body.append("int h = 1;\n");
+            for (var field : fields) {
+                body.append("        h = 31 * h + %s;\n".formatted(
+                        fieldHashCodeExpression(fieldValue(selfExpr, field), field)
+                ));
+            }
+            body.append("        return h;");
+            return body.toString();
         }
     }
 
-    private String toStringMethod(String selfExpr, Name className, List<VariableElement> fields) {
-        return """
-                    @Override
-                    public String toString() {
-                        %s
-                    }
-                                
-                """.formatted(
-                createToStringMethodBody(selfExpr, className, fields)
-        );
+    private String createCachedHashCodeMethodBody(String selfExpr, List<VariableElement> fields) {
+        var body = new StringBuilder();
+        body.append("int h = this.hashCode$;\n");
+        body.append("        if (h == 0 && !this.hashCodeIsZero$) {\n");
+        body.append("            h = 1;\n");
+        for (var field : fields) {
+            body.append("            h = 31 * h + %s;\n".formatted(
+                    fieldHashCodeExpression(fieldValue(selfExpr, field), field)
+            ));
+        }
+        body.append("            if (h == 0) {\n");
+        body.append("                this.hashCodeIsZero$ = true;\n");
+        body.append("            }\n");
+        body.append("            else {\n");
+        body.append("                this.hashCode$ = h;\n");
+        body.append("            }\n");
+        body.append("        }\n");
+        body.append("        return h;");
+        return body.toString();
     }
 
-    private String createToStringMethodBody(String selfExpr, Name className, List<VariableElement> fields) {
-        if (fields.isEmpty()) {
-            return "return \"%s[]\"; "
-                    .formatted(className);
+    /**
+     * Declared types whose copies are equal to the original whatever implementation they hold,
+     * along with the class used to copy them. The sorted types are copied with constructors
+     * which keep the comparator. Other types, like Queue, are shared rather than copied.
+     */
+    private static final Map<String, String> COPYABLE_COLLECTIONS = Map.ofEntries(
+            Map.entry("java.util.List", "java.util.ArrayList"),
+            Map.entry("java.util.ArrayList", "java.util.ArrayList"),
+            Map.entry("java.util.LinkedList", "java.util.LinkedList"),
+            Map.entry("java.util.Set", "java.util.LinkedHashSet"),
+            Map.entry("java.util.HashSet", "java.util.HashSet"),
+            Map.entry("java.util.LinkedHashSet", "java.util.LinkedHashSet"),
+            Map.entry("java.util.SortedSet", "java.util.TreeSet"),
+            Map.entry("java.util.NavigableSet", "java.util.TreeSet"),
+            Map.entry("java.util.TreeSet", "java.util.TreeSet"),
+            Map.entry("java.util.Map", "java.util.LinkedHashMap"),
+            Map.entry("java.util.HashMap", "java.util.HashMap"),
+            Map.entry("java.util.LinkedHashMap", "java.util.LinkedHashMap"),
+            Map.entry("java.util.SortedMap", "java.util.TreeMap"),
+            Map.entry("java.util.NavigableMap", "java.util.TreeMap"),
+            Map.entry("java.util.TreeMap", "java.util.TreeMap")
+    );
+
+    private String copiedValue(String value, VariableElement field, boolean deepCopy) {
+        var type = field.asType();
+        if (deepCopy && type.getKind() == TypeKind.ARRAY) {
+            return "%s == null ? null : %s.clone()".formatted(value, value);
         }
-        else {
-            return "return \"%s[\" + %s + \"]\";"
-                    .formatted(
-                    className,
-                    fields.stream()
-                            .map(field ->
-                                    "\"%s=\" + %s".formatted(
-                                            field.getSimpleName(),
-                                            selfExpr + "." + field.getSimpleName()
-                                    )
-                            )
-                            .collect(Collectors.joining(" +\n                     \", \" + ")));
+        if (deepCopy && type.getKind() == TypeKind.DECLARED) {
+            var collection = COPYABLE_COLLECTIONS.get(
+                    this.processingEnv.getTypeUtils().erasure(type).toString()
+            );
+            if (collection != null) {
+                return "%s == null ? null : new %s<>(%s)".formatted(value, collection, value);
+            }
         }
+        return value;
     }
 
-    @Override
-    public boolean process(
-            Set<? extends TypeElement> annotations,
-            RoundEnvironment roundEnv
-    ) {
-        var filer = this.processingEnv.getFiler();
-        var messager = this.processingEnv.getMessager();
-        var elementUtils = this.processingEnv.getElementUtils();
+    private String copyMethods(Name className, List<VariableElement> fields, boolean deepCopy) {
+        var copyMethods = new StringBuilder();
+        copyMethods.append("""
+                    /**
+                     * Sets every field to its value in another instance.
+                     */
+                    public void copyFrom(%s other) {
+                """.formatted(className));
+        for (var field : fields) {
+            copyMethods.append("        %s(%s);\n".formatted(
+                    setterName(field),
+                    copiedValue(fieldValue("other", field), field, deepCopy)
+            ));
+        }
+        copyMethods.append("""
+                    }
 
-        Set<? extends Element> elements = roundEnv.getElementsAnnotatedWith(MagicBean.class);
-        for (var element : elements) {
-            if (!(element instanceof TypeElement typeElement)) {
-                messager.printMessage(
-                        Diagnostic.Kind.ERROR,
-                        "Magic beans should only be placeable on classes.",
-                        element
-                );
-            } else {
-                var members = elementUtils.getAllMembers(typeElement);
-                var fields = ElementFilter.fieldsIn(members);
-                for (var field : fields) {
-                    var modifiers = field.getModifiers();
-                    if (!modifiers.contains(Modifier.STATIC)) {
-                        if (modifiers.contains(Modifier.PRIVATE)) {
-                            messager.printMessage(
-                                    Diagnostic.Kind.ERROR,
-                                    "Magic beans are not allowed to have any private non-static fields",
-                                    field
-                            );
+                    /**
+                     * Creates a copy of the given instance.
+                     */
+                    public static %s copyOf(%s other) {
+                        var o$ = new %s();
+                        o$.copyFrom(other);
+                        return o$;
+                    }
 
-                            return true;
-                        }
+                """.formatted(className, className, className));
+        return copyMethods.toString();
+    }
 
-                        if (modifiers.contains(Modifier.FINAL)) {
-                            messager.printMessage(
-                                    Diagnostic.Kind.ERROR,
-                                    "Magic beans are not allowed to have any final non-static fields",
-                                    field
-                            );
+    private String constantName(String fieldName) {
+        return fieldName.replaceAll("([a-z0-9])([A-Z])", "$1_$2").toUpperCase(Locale.ROOT);
+    }
 
-                            return true;
-                        }
+    private boolean isComparable(TypeMirror type) {
+        if (type.getKind().isPrimitive()) {
+            return true;
+        }
+        if (type.getKind() != TypeKind.DECLARED) {
+            return false;
+        }
+        var typeUtils = this.processingEnv.getTypeUtils();
+        var comparable = this.processingEnv.getElementUtils().getTypeElement("java.lang.Comparable");
+        return typeUtils.isAssignable(typeUtils.erasure(type), typeUtils.erasure(comparable.asType()));
+    }
 
-                    }
-                    var fieldType = field.asType().getKind();
-                    if (!(fieldType.isPrimitive() || fieldType == TypeKind.ARRAY || fieldType == TypeKind.DECLARED)) {
-                        messager.printMessage(
-                                Diagnostic.Kind.ERROR,
-                                "Unsupported type for a field: " + fieldType,
-                                field
-                        );
+    private String compareExpression(String left, String right, VariableElement field) {
+        return switch (field.asType().getKind()) {
+            case BOOLEAN -> "Boolean.compare(%s, %s)".formatted(left, right);
+            case BYTE -> "Byte.compare(%s, %s)".formatted(left, right);
+            case SHORT -> "Short.compare(%s, %s)".formatted(left, right);
+            case CHAR -> "Character.compare(%s, %s)".formatted(left, right);
+            case INT -> "Integer.compare(%s, %s)".formatted(left, right);
+            case LONG -> "Long.compare(%s, %s)".formatted(left, right);
+            case FLOAT -> "Float.compare(%s, %s)".formatted(left, right);
+            case DOUBLE -> "Double.compare(%s, %s)".formatted(left, right);
+            default -> "compareNullsFirst$(%s, %s)".formatted(left, right);
+        };
+    }
 
-                        return true;
+    private static final String COMPARE_NULLS_FIRST_METHOD = """
+                private static <T extends Comparable<? super T>> int compareNullsFirst$(T a, T b) {
+                    if (a == b) {
+                        return 0;
+                    }
+                    else if (a == null) {
+                        return -1;
+                    }
+                    else if (b == null) {
+                        return 1;
+                    }
+                    else {
+                        return a.compareTo(b);
                     }
                 }
 
-                var constructors = ElementFilter.constructorsIn(members);
-                var hasValidConstructor = constructors
-                        .stream()
-                        .anyMatch(constructor ->
-                                constructor.getParameters().size() == 0 &&
-                                        !constructor.getModifiers().contains(Modifier.PRIVATE)
-                        );
+            """;
 
-                var annotation = typeElement.getAnnotation(MagicBean.class);
-                if (annotation.allArgsStaticFactory() && !hasValidConstructor) {
-                    messager.printMessage(
-                            Diagnostic.Kind.ERROR,
-                            "Magic beans need to have a non-private zero arg constructor in order for a factory method to be generated.",
-                            element
-                    );
-                    return true;
+    private String lensConstants(Name className, List<VariableElement> fields) {
+        var typeUtils = this.processingEnv.getTypeUtils();
+        var lensConstants = new StringBuilder();
+        var lensKinds = new LinkedHashSet<TypeKind>();
+        for (var field : fields) {
+            var kind = field.asType().getKind();
+            var fieldName = field.getSimpleName();
+            var getter = getterName(field);
+            var setter = setterName(field);
+            String lensType;
+            String methods;
+            switch (kind) {
+                case INT -> {
+                    lensType = "IntLens";
+                    methods = """
+                                    @Override
+                                    public int applyAsInt(%s bean) {
+                                        return bean.%s();
+                                    }
+
+                                    @Override
+                                    public void accept(%s bean, int value) {
+                                        bean.%s(value);
+                                    }
+                            """.formatted(className, getter, className, setter);
                 }
+                case LONG -> {
+                    lensType = "LongLens";
+                    methods = """
+                                    @Override
+                                    public long applyAsLong(%s bean) {
+                                        return bean.%s();
+                                    }
 
-                var className = typeElement.getSimpleName();
+                                    @Override
+                                    public void accept(%s bean, long value) {
+                                        bean.%s(value);
+                                    }
+                            """.formatted(className, getter, className, setter);
+                }
+                case DOUBLE -> {
+                    lensType = "DoubleLens";
+                    methods = """
+                                    @Override
+                                    public double applyAsDouble(%s bean) {
+                                        return bean.%s();
+                                    }
 
-                var enclosingElement = typeElement.getEnclosingElement();
-                if (!(enclosingElement instanceof PackageElement packageElement)) {
-                    messager.printMessage(
-                            Diagnostic.Kind.ERROR,
-                            "Magic beans must be top level classes, not nested within another class",
-                            element
-                    );
-                    return true;
+                                    @Override
+                                    public void accept(%s bean, double value) {
+                                        bean.%s(value);
+                                    }
+                            """.formatted(className, getter, className, setter);
                 }
+                default -> {
+                    var valueType = kind.isPrimitive()
+                            ? typeUtils.boxedClass((PrimitiveType) field.asType()).getQualifiedName().toString()
+                            : field.asType().toString();
+                    lensType = "Lens<%s>".formatted(valueType);
+                    methods = """
+                                    @Override
+                                    public %s apply(%s bean) {
+                                        return bean.%s();
+                                    }
 
-                String packageName;
-                if (packageElement.isUnnamed()) {
-                    packageName = null;
+                                    @Override
+                                    public void accept(%s bean, %s value) {
+                                        bean.%s(value);
+                                    }
+                            """.formatted(valueType, className, getter, className, valueType, setter);
                 }
-                else {
-                    packageName = packageElement.toString();
+            }
+            lensKinds.add(switch (kind) {
+                case INT, LONG, DOUBLE -> kind;
+                default -> TypeKind.DECLARED;
+            });
+            lensConstants.append("""
+                        /**
+                         * Gets and sets %s.
+                         */
+                        public static final %s %s = new %s("%s") {
+                    %s    };
+
+                    """.formatted(
+                    fieldName,
+                    lensType, constantName(fieldName.toString()), lensType.replaceAll("<.*>", "<>"), fieldName,
+                    methods
+            ));
+        }
+
+        for (var kind : lensKinds) {
+            String lensType;
+            String interfaces;
+            switch (kind) {
+                case INT -> {
+                    lensType = "IntLens";
+                    interfaces = "java.util.function.ToIntFunction<%s>, java.util.function.ObjIntConsumer<%s>";
+                }
+                case LONG -> {
+                    lensType = "LongLens";
+                    interfaces = "java.util.function.ToLongFunction<%s>, java.util.function.ObjLongConsumer<%s>";
+                }
+                case DOUBLE -> {
+                    lensType = "DoubleLens";
+                    interfaces = "java.util.function.ToDoubleFunction<%s>, java.util.function.ObjDoubleConsumer<%s>";
                 }
+                default -> {
+                    lensType = "Lens<T>";
+                    interfaces = "java.util.function.Function<%s, T>, java.util.function.BiConsumer<%s, T>";
+                }
+            }
+            var simpleName = lensType.replaceAll("<.*>", "");
+            lensConstants.append("""
+                        /**
+                         * Gets and sets a single field of %s.
+                         */
+                        public static abstract class %s implements %s {
+                            private final String name;
 
-                String selfMethod = """
-                            private %s self() {
-                                return (switch (this) { case %s __ -> __; });
+                            private %s(String name) {
+                                this.name = name;
                             }
-                        
-                        """.formatted(className, className);
 
-                String selfExpr = "self()";
+                            /**
+                             * @return The name of the field.
+                             */
+                            public final String name() {
+                                return this.name;
+                            }
 
-                boolean requiresFinalClass = annotation.equalsAndHashCode();
+                            @Override
+                            public String toString() {
+                                return "%s." + this.name;
+                            }
+                        }
 
-                if (requiresFinalClass && !typeElement.getModifiers().contains(Modifier.FINAL)) {
-                    messager.printMessage(
-                            Diagnostic.Kind.ERROR,
-                            "In order to use the automatic equals and hash code, a magic bean must be final.",
-                            element
-                    );
-                    return true;
-                }
+                    """.formatted(
+                    className,
+                    lensType, interfaces.formatted(className, className),
+                    simpleName,
+                    className
+            ));
+        }
+        return lensConstants.toString();
+    }
 
-                BiFunction<String, String, String> methodDefinition = (fieldType, fieldName) -> {
-                    var pascalName = pascal(fieldName);
-                    return """
-                                /**
-                                 * Get the current value for %s.
-                                 */
-                                public %s %s%s() {
-                                    return %s.%s;
-                                }
-                                
-                                /**
-                                 * Set the current value for %s.
-                                 */
-                                public void set%s(%s %s) {
-                                    %s.%s = %s;
+    private String comparatorConstants(Name className, List<VariableElement> fields) {
+        var comparatorConstants = new StringBuilder();
+        for (var field : fields) {
+            if (isComparable(field.asType())) {
+                comparatorConstants.append("""
+                            /**
+                             * Orders instances by %s.
+                             */
+                            public static final java.util.Comparator<%s> BY_%s =
+                                    (a, b) -> %s;
+
+                        """.formatted(
+                        field.getSimpleName(),
+                        className,
+                        constantName(field.getSimpleName().toString()),
+                        compareExpression(fieldValue("a", field), fieldValue("b", field), field)
+                ));
+            }
+        }
+        return comparatorConstants.toString();
+    }
+
+    private String compareToMethod(String selfExpr, Name className, List<VariableElement> fields) {
+        var compareToMethod = new StringBuilder();
+        compareToMethod.append("""
+                    @Override
+                    public int compareTo(%s other) {
+                """.formatted(className));
+        for (int i = 0; i < fields.size(); i++) {
+            var field = fields.get(i);
+            var comparison = compareExpression(
+                    fieldValue(selfExpr, field),
+                    fieldValue("other", field),
+                    field
+            );
+            if (i == fields.size() - 1) {
+                compareToMethod.append("        return %s;\n".formatted(comparison));
+            }
+            else {
+                compareToMethod.append("""
+                                int %s$ = %s;
+                                if (%s$ != 0) {
+                                    return %s$;
                                 }
-                                
-                            """.formatted(
-                            fieldName,
-                            fieldType, Set.of("boolean", "java.lang.Boolean").contains(fieldType) ? "is" : "get", pascalName,
-                            selfExpr, fieldName,
-                            fieldName,
-                             pascalName, fieldType, fieldName,
-                            selfExpr, fieldName, fieldName
-                    );
-                };
+                        """.formatted(
+                        field.getSimpleName(), comparison,
+                        field.getSimpleName(),
+                        field.getSimpleName()
+                ));
+            }
+        }
+        compareToMethod.append("    }\n\n");
+        return compareToMethod.toString();
+    }
 
+    private String dirtyTrackingMethods(String selfExpr, Name className, List<VariableElement> fields) {
+        var dirtyTrackingMethods = new StringBuilder();
+        dirtyTrackingMethods.append("""
+                    /**
+                     * Get the fields which have been set since the last call to clearDirty.
+                     *
+                     * @return A mask where bit i is set if the i-th field was set.
+                     */
+                    public long dirtyFields() {
+                        return this.dirtyFields$;
+                    }
 
-                var packageDecl = packageName == null ? "" : "package " + packageName + ";\n\n";
+                    /**
+                     * Forget which fields have been set.
+                     */
+                    public void clearDirty() {
+                        this.dirtyFields$ = 0;
+                    }
 
-                String extendClass;
-                try {
-                    extendClass = annotation.extend().toString();
-                } catch (MirroredTypeException e) {
-                    extendClass = e.getTypeMirror().toString();
-                }
+                    /**
+                     * Get the fields whose values differ from those in another instance.
+                     *
+                     * @return A mask where bit i is set if the i-th field differs.
+                     */
+                    public long diff(%s other) {
+                        long diff = 0;
+                """.formatted(className));
+        for (int i = 0; i < fields.size(); i++) {
+            var field = fields.get(i);
+            dirtyTrackingMethods.append("""
+                            if (!(%s)) {
+                                diff |= 1L << %d;
+                            }
+                    """.formatted(
+                    fieldEqualsExpression(
+                            fieldValue(selfExpr, field),
+                            fieldValue("other", field),
+                            field
+                    ),
+                    i
+            ));
+        }
+        dirtyTrackingMethods.append("""
+                        return diff;
+                    }
 
-                var superClass = typeElement.getSuperclass();
-                var generatedClassName = superClass.toString();
+                """);
+        return dirtyTrackingMethods.toString();
+    }
 
-                if ("java.lang.Object".equals(generatedClassName)) {
-                    messager.printMessage(
-                            Diagnostic.Kind.ERROR,
-                            "A magic bean must extend a class.",
-                            element
-                    );
-                    return true;
-                }
+    private String toStringMethod(String selfExpr, Name className, List<VariableElement> fields, boolean appendTo) {
+        return """
+                    @Override
+                    public String toString() {
+                        %s
+                    }
+                                
+                """.formatted(
+                appendTo
+                        ? "return appendTo(new StringBuilder(%d)).toString();"
+                                .formatted(estimateToStringLength(className, fields))
+                        : createToStringMethodBody(selfExpr, className, fields)
+        );
+    }
 
-                if (generatedClassName.contains("<")) {
-                    messager.printMessage(
-                            Diagnostic.Kind.ERROR,
-                            "The class a magic bean extends should not be generic. %s"
-                                    .formatted(generatedClassName),
-                            element
-                    );
-                    return true;
-                }
+    /**
+     * Guess at the length of the string toString will produce, assuming
+     * every field's value takes up 8 characters.
+     */
+    private int estimateToStringLength(Name className, List<VariableElement> fields) {
+        int length = className.length() + 2;
+        for (var field : fields) {
+            length += field.getSimpleName().length() + ", =".length() + 8;
+        }
+        return length;
+    }
 
-                if (generatedClassName.contains(".")) {
-                    var split = generatedClassName.split("\\.");
-                    generatedClassName = split[split.length - 1];
-                }
+    private String appendToMethods(String selfExpr, Name className, List<VariableElement> fields) {
+        var appendToMethods = new StringBuilder();
+        appendToMethods.append("""
+                    /**
+                     * Appends the same text as toString to the given builder.
+                     */
+                    public StringBuilder appendTo(StringBuilder sb) {
+                        sb.append("%s[");
+                """.formatted(className));
+        for (int i = 0; i < fields.size(); i++) {
+            var field = fields.get(i);
+            appendToMethods.append("        sb.append(\"%s%s=\").append(%s);\n".formatted(
+                    i == 0 ? "" : ", ",
+                    field.getSimpleName(),
+                    appendableValue(selfExpr, field)
+            ));
+        }
+        appendToMethods.append("""
+                        sb.append(']');
+                        return sb;
+                    }
 
-                var classDeclStart = "sealed abstract class %s extends %s permits %s {\n\n".formatted(
-                        generatedClassName,
-                        extendClass,
-                        className
-                );
+                    /**
+                     * Appends the same text as toString to the given appendable.
+                     */
+                    public <A extends Appendable> A appendTo(A appendable) throws java.io.IOException {
+                        if (appendable instanceof StringBuilder sb) {
+                            appendTo(sb);
+                            return appendable;
+                        }
+                        appendable.append("%s[");
+                """.formatted(className));
+        for (int i = 0; i < fields.size(); i++) {
+            var field = fields.get(i);
+            appendToMethods.append("        appendable.append(\"%s%s=\").append(String.valueOf(%s));\n".formatted(
+                    i == 0 ? "" : ", ",
+                    field.getSimpleName(),
+                    appendableValue(selfExpr, field)
+            ));
+        }
+        appendToMethods.append("""
+                        appendable.append(']');
+                        return appendable;
+                    }
 
-                var classDeclEnd = "}";
+                """);
+        return appendToMethods.toString();
+    }
 
-                var classDecl = new StringBuilder();
-                classDecl.append(packageDecl);
-                classDecl.append(classDeclStart);
-                classDecl.append(selfMethod);
+    /**
+     * The value of a field as it should be passed to append or String.valueOf. char arrays
+     * need to be treated as objects so that they are printed the same way as in toString.
+     */
+    private String appendableValue(String selfExpr, VariableElement field) {
+        var value = selfExpr + "." + field.getSimpleName();
+        if (field.asType() instanceof ArrayType arrayType
+                && arrayType.getComponentType().getKind() == TypeKind.CHAR) {
+            return "(Object) " + value;
+        }
+        else {
+            return value;
+        }
+    }
 
-                if (annotation.allArgsStaticFactory()) {
-                    classDecl.append(staticFactoryMethod(className, fields));
-                }
+    /**
+     * @return The primitive kind a boxed type unboxes to, or null if the type is not a box.
+     */
+    private TypeKind unboxedKind(TypeMirror type) {
+        if (type.getKind() != TypeKind.DECLARED) {
+            return null;
+        }
+        try {
+            return this.processingEnv.getTypeUtils().unboxedType(type).getKind();
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
 
-                for (var field : fields) {
-                    classDecl.append(methodDefinition.apply(
-                            field.asType().toString(),
-                            field.getSimpleName().toString()
-                    ));
-                }
+    private boolean isString(TypeMirror type) {
+        return type.getKind() == TypeKind.DECLARED && "java.lang.String".equals(type.toString());
+    }
 
-                if (annotation.equalsAndHashCode()) {
-                    classDecl.append(equalsAndHashCodeMethods(selfExpr, className, fields));
-                }
+    private boolean isByteArray(TypeMirror type) {
+        return type instanceof ArrayType arrayType
+                && arrayType.getComponentType().getKind() == TypeKind.BYTE;
+    }
 
-                if (annotation.toString_()) {
-                    classDecl.append(toStringMethod(selfExpr, className, fields));
-                }
+    private boolean supportedByBinaryCodec(TypeMirror type) {
+        return type.getKind().isPrimitive()
+                || unboxedKind(type) != null
+                || isString(type)
+                || isEnum(type)
+                || isByteArray(type);
+    }
 
-                classDecl.append(classDeclEnd);
+    /**
+     * Statement which writes a primitive value to either a DataOutput named out
+     * or a ByteBuffer named buffer.
+     */
+    private String writePrimitive(TypeKind kind, String value, boolean buffer) {
+        var sink = buffer ? "buffer" : "out";
+        return switch (kind) {
+            case BOOLEAN -> buffer
+                    ? "buffer.put((byte) (%s ? 1 : 0));".formatted(value)
+                    : "out.writeBoolean(%s);".formatted(value);
+            case BYTE -> buffer ? "buffer.put(%s);".formatted(value) : "out.writeByte(%s);".formatted(value);
+            case SHORT -> buffer ? "buffer.putShort(%s);".formatted(value) : "out.writeShort(%s);".formatted(value);
+            case CHAR -> buffer ? "buffer.putChar(%s);".formatted(value) : "out.writeChar(%s);".formatted(value);
+            case INT -> "writeInt$(%s, %s);".formatted(sink, value);
+            case LONG -> "writeLong$(%s, %s);".formatted(sink, value);
+            case FLOAT -> buffer ? "buffer.putFloat(%s);".formatted(value) : "out.writeFloat(%s);".formatted(value);
+            case DOUBLE -> buffer ? "buffer.putDouble(%s);".formatted(value) : "out.writeDouble(%s);".formatted(value);
+            default -> throw new IllegalArgumentException(kind.toString());
+        };
+    }
 
-                try {
-                    var file = filer.createSourceFile(
-                            (packageName == null ? "" : packageName + ".") + generatedClassName,
-                            element
-                    );
-                    try (var writer = file.openWriter()) {
-                        writer.append(classDecl.toString());
-                    }
-                } catch (IOException e) {
-                    throw new RuntimeException(e);
-                }
-            }
+    /**
+     * Expression which reads a primitive value from either a DataInput named in
+     * or a ByteBuffer named buffer.
+     */
+    private String readPrimitive(TypeKind kind, boolean buffer) {
+        var source = buffer ? "buffer" : "in";
+        return switch (kind) {
+            case BOOLEAN -> buffer ? "buffer.get() != 0" : "in.readBoolean()";
+            case BYTE -> buffer ? "buffer.get()" : "in.readByte()";
+            case SHORT -> buffer ? "buffer.getShort()" : "in.readShort()";
+            case CHAR -> buffer ? "buffer.getChar()" : "in.readChar()";
+            case INT -> "readInt$(%s)".formatted(source);
+            case LONG -> "readLong$(%s)".formatted(source);
+            case FLOAT -> buffer ? "buffer.getFloat()" : "in.readFloat()";
+            case DOUBLE -> buffer ? "buffer.getDouble()" : "in.readDouble()";
+            default -> throw new IllegalArgumentException(kind.toString());
+        };
+    }
+
+    private String writeField(String selfExpr, VariableElement field, boolean buffer) {
+        var sink = buffer ? "buffer" : "out";
+        var type = field.asType();
+        var value = fieldValue(selfExpr, field);
+        if (type.getKind().isPrimitive()) {
+            return writePrimitive(type.getKind(), value, buffer);
+        }
+        else if (isString(type)) {
+            return "writeString$(%s, %s);".formatted(sink, value);
+        }
+        else if (isByteArray(type)) {
+            return "writeBytes$(%s, %s);".formatted(sink, value);
+        }
+        else if (isEnum(type)) {
+            return "writeVarLong$(%s, %s == null ? 0 : %s.ordinal() + 1);".formatted(sink, value, value);
+        }
+        else {
+            return """
+                    if (%s == null) {
+                                %s
+                            }
+                            else {
+                                %s
+                                %s
+                            }""".formatted(
+                    value,
+                    writePrimitive(TypeKind.BOOLEAN, "false", buffer),
+                    writePrimitive(TypeKind.BOOLEAN, "true", buffer),
+                    writePrimitive(unboxedKind(type), value, buffer)
+            );
         }
+    }
 
-        return true;
+    private String readField(VariableElement field, boolean buffer) {
+        var source = buffer ? "buffer" : "in";
+        var type = field.asType();
+        var name = field.getSimpleName().toString();
+        var setter = "set" + pascal(name);
+        if (type.getKind().isPrimitive()) {
+            return "%s(%s);".formatted(setter, readPrimitive(type.getKind(), buffer));
+        }
+        else if (isString(type)) {
+            return "%s(readString$(%s));".formatted(setter, source);
+        }
+        else if (isByteArray(type)) {
+            return "%s(readBytes$(%s));".formatted(setter, source);
+        }
+        else if (isEnum(type)) {
+            return """
+                    int %s$ = (int) readVarLong$(%s);
+                            %s(%s$ == 0 ? null : %sValues$[%s$ - 1]);""".formatted(
+                    name, source,
+                    setter, name, name, name
+            );
+        }
+        else {
+            return "%s(%s ? %s : null);".formatted(
+                    setter,
+                    readPrimitive(TypeKind.BOOLEAN, buffer),
+                    readPrimitive(unboxedKind(type), buffer)
+            );
+        }
+    }
+
+    private MagicBean.AccessMode accessMode(MagicBean annotation, VariableElement field) {
+        if (field.getModifiers().contains(Modifier.STATIC)) {
+            return MagicBean.AccessMode.PLAIN;
+        }
+        var access = field.getAnnotation(MagicBean.Access.class);
+        return access == null ? annotation.accessMode() : access.value();
+    }
+
+    private String lazyFlagName(VariableElement field) {
+        return field.getSimpleName() + "Computed$";
+    }
+
+    /**
+     * An expression for the value of a field on the given instance. Lazy fields are read
+     * through their getter so that a value which has not been computed yet is not taken for null.
+     */
+    private String fieldValue(String target, VariableElement field) {
+        if (field.getAnnotation(MagicBean.Lazy.class) != null) {
+            return "%s.%s()".formatted(target, getterName(field));
+        }
+        return target + "." + field.getSimpleName();
+    }
+
+    private String lazyAccessors(String selfExpr, VariableElement field, String setterChecks, String setterHooks, boolean cacheHashCode) {
+        var lazy = field.getAnnotation(MagicBean.Lazy.class);
+        var fieldType = field.asType().toString();
+        var fieldName = field.getSimpleName().toString();
+        var flag = lazyFlagName(field);
+        // The hash code may have been cached while the value was still unset
+        var clearHashCode = cacheHashCode
+                ? "\nthis.hashCode$ = 0;\nthis.hashCodeIsZero$ = false;"
+                : "";
+        if (lazy.threadSafe()) {
+            return """
+                        private transient volatile boolean %s;
+
+                        /**
+                         * Get the current value for %s, computing it with %s() on first access.
+                         * The value is computed at most once, even when called from several threads.
+                         */
+                        public %s %s() {
+                            if (!this.%s) {
+                                synchronized (this) {
+                                    if (!this.%s) {
+                                        %s.%s = %s.%s();
+                                        this.%s = true;%s
+                                    }
+                                }
+                            }
+                            return %s.%s;
+                        }
+
+                        /**
+                         * Set the current value for %s. It will no longer be computed.
+                         */
+                        public void %s(%s %s) {
+                            %ssynchronized (this) {
+                                %s.%s = %s;
+                                this.%s = true;
+                            }%s
+                        }
+
+                    """.formatted(
+                    flag,
+                    fieldName, lazy.value(),
+                    fieldType, getterName(field),
+                    flag,
+                    flag,
+                    selfExpr, fieldName, selfExpr, lazy.value(),
+                    flag, clearHashCode.replace("\n", "\n                    "),
+                    selfExpr, fieldName,
+                    fieldName,
+                    setterName(field), fieldType, fieldName,
+                    setterChecks, selfExpr, fieldName, fieldName,
+                    flag, setterHooks
+            );
+        }
+        else {
+            return """
+                        private transient boolean %s;
+
+                        /**
+                         * Get the current value for %s, computing it with %s() on first access.
+                         */
+                        public %s %s() {
+                            if (!this.%s) {
+                                %s.%s = %s.%s();
+                                this.%s = true;%s
+                            }
+                            return %s.%s;
+                        }
+
+                        /**
+                         * Set the current value for %s. It will no longer be computed.
+                         */
+                        public void %s(%s %s) {
+                            %s%s.%s = %s;
+                            this.%s = true;%s
+                        }
+
+                    """.formatted(
+                    flag,
+                    fieldName, lazy.value(),
+                    fieldType, getterName(field),
+                    flag,
+                    selfExpr, fieldName, selfExpr, lazy.value(),
+                    flag, clearHashCode.replace("\n", "\n            "),
+                    selfExpr, fieldName,
+                    fieldName,
+                    setterName(field), fieldType, fieldName,
+                    setterChecks, selfExpr, fieldName, fieldName,
+                    flag, setterHooks
+            );
+        }
+    }
+
+    private boolean isNumeric(TypeKind kind) {
+        return switch (kind) {
+            case BYTE, SHORT, INT, LONG, FLOAT, DOUBLE -> true;
+            default -> false;
+        };
+    }
+
+    private boolean isCollectionOrMap(TypeMirror type) {
+        var typeUtils = this.processingEnv.getTypeUtils();
+        var elementUtils = this.processingEnv.getElementUtils();
+        var erased = typeUtils.erasure(type);
+        return typeUtils.isAssignable(erased, typeUtils.erasure(elementUtils.getTypeElement("java.util.Collection").asType()))
+                || typeUtils.isAssignable(erased, typeUtils.erasure(elementUtils.getTypeElement("java.util.Map").asType()));
+    }
+
+    /**
+     * Reports constraint annotations which can not apply to a field.
+     *
+     * @return Whether every constraint on the field is valid.
+     */
+    private boolean validateConstraints(VariableElement field) {
+        var messager = this.processingEnv.getMessager();
+        var type = field.asType();
+        var notNull = field.getAnnotation(MagicBean.NotNull.class);
+        var min = field.getAnnotation(MagicBean.Min.class);
+        var max = field.getAnnotation(MagicBean.Max.class);
+        var size = field.getAnnotation(MagicBean.Size.class);
+        if (notNull == null && min == null && max == null && size == null) {
+            return true;
+        }
+
+        var valid = true;
+        if (field.getModifiers().contains(Modifier.STATIC)) {
+            messager.printMessage(
+                    Diagnostic.Kind.ERROR,
+                    "Constraints can only be placed on instance fields.",
+                    field
+            );
+            return false;
+        }
+        if (notNull != null && type.getKind().isPrimitive()) {
+            messager.printMessage(
+                    Diagnostic.Kind.ERROR,
+                    "NotNull can not be placed on a primitive field.",
+                    field
+            );
+            valid = false;
+        }
+        var numeric = isNumeric(type.getKind()) || (unboxedKind(type) != null && isNumeric(unboxedKind(type)));
+        if ((min != null || max != null) && !numeric) {
+            messager.printMessage(
+                    Diagnostic.Kind.ERROR,
+                    "Min and Max can only be placed on numeric fields.",
+                    field
+            );
+            valid = false;
+        }
+        if (min != null && max != null && min.value() > max.value()) {
+            messager.printMessage(
+                    Diagnostic.Kind.ERROR,
+                    "Min must not be greater than Max.",
+                    field
+            );
+            valid = false;
+        }
+        if (size != null) {
+            if (!(isString(type) || type.getKind() == TypeKind.ARRAY || isCollectionOrMap(type))) {
+                messager.printMessage(
+                        Diagnostic.Kind.ERROR,
+                        "Size can only be placed on Strings, arrays, collections and maps.",
+                        field
+                );
+                valid = false;
+            }
+            if (size.min() < 0 || size.min() > size.max()) {
+                messager.printMessage(
+                        Diagnostic.Kind.ERROR,
+                        "Size must have a min which is not negative and not greater than its max.",
+                        field
+                );
+                valid = false;
+            }
+        }
+        return valid;
+    }
+
+    /**
+     * @return The condition under which each constraint on the field is violated by a value,
+     * along with the message describing the violation.
+     */
+    private List<Map.Entry<String, String>> constraintChecks(VariableElement field, String value) {
+        var type = field.asType();
+        var fieldName = field.getSimpleName();
+        var nullable = !type.getKind().isPrimitive();
+        var checks = new ArrayList<Map.Entry<String, String>>();
+
+        var notNull = field.getAnnotation(MagicBean.NotNull.class);
+        if (notNull != null) {
+            checks.add(Map.entry("%s == null".formatted(value), "%s must not be null".formatted(fieldName)));
+        }
+
+        var min = field.getAnnotation(MagicBean.Min.class);
+        if (min != null) {
+            checks.add(Map.entry(
+                    (nullable ? "%s != null && " : "").formatted(value) + "%s < %dL".formatted(value, min.value()),
+                    "%s must be at least %d".formatted(fieldName, min.value())
+            ));
+        }
+
+        var max = field.getAnnotation(MagicBean.Max.class);
+        if (max != null) {
+            checks.add(Map.entry(
+                    (nullable ? "%s != null && " : "").formatted(value) + "%s > %dL".formatted(value, max.value()),
+                    "%s must be at most %d".formatted(fieldName, max.value())
+            ));
+        }
+
+        var size = field.getAnnotation(MagicBean.Size.class);
+        if (size != null) {
+            String length;
+            if (isString(type)) {
+                length = value + ".length()";
+            }
+            else if (type.getKind() == TypeKind.ARRAY) {
+                length = value + ".length";
+            }
+            else {
+                length = value + ".size()";
+            }
+            String condition;
+            String message;
+            if (size.max() == Integer.MAX_VALUE) {
+                condition = "%s != null && %s < %d".formatted(value, length, size.min());
+                message = "%s must have a size of at least %d".formatted(fieldName, size.min());
+            }
+            else if (size.min() == 0) {
+                condition = "%s != null && %s > %d".formatted(value, length, size.max());
+                message = "%s must have a size of at most %d".formatted(fieldName, size.max());
+            }
+            else {
+                condition = "%s != null && (%s < %d || %s > %d)".formatted(value, length, size.min(), length, size.max());
+                message = "%s must have a size between %d and %d".formatted(fieldName, size.min(), size.max());
+            }
+            checks.add(Map.entry(condition, message));
+        }
+        return checks;
+    }
+
+    private String validateMethod(String selfExpr, List<VariableElement> fields) {
+        var validateMethod = new StringBuilder();
+        validateMethod.append("""
+                    /**
+                     * Checks the constraints on every field.
+                     *
+                     * @return A description of each violated constraint, or an empty list if there are none.
+                     */
+                    public java.util.List<String> validate() {
+                        var violations = new java.util.ArrayList<String>();
+                """);
+        for (var field : fields) {
+            for (var check : constraintChecks(field, fieldValue(selfExpr, field))) {
+                validateMethod.append("""
+                                if (%s) {
+                                    violations.add("%s");
+                                }
+                        """.formatted(check.getKey(), check.getValue()));
+            }
+        }
+        validateMethod.append("""
+                        return violations;
+                    }
+
+                """);
+        return validateMethod.toString();
+    }
+
+    private String varHandleName(VariableElement field) {
+        return field.getSimpleName() + "$";
+    }
+
+    private String varHandleFields(CharSequence className, List<VariableElement> fields) {
+        var typeUtils = this.processingEnv.getTypeUtils();
+        var declarations = new StringBuilder();
+        var initializers = new StringBuilder();
+        for (var field : fields) {
+            declarations.append("    private static final java.lang.invoke.VarHandle %s;\n".formatted(
+                    varHandleName(field)
+            ));
+            initializers.append("\n            %s = lookup.findVarHandle(%s.class, \"%s\", %s.class);".formatted(
+                    varHandleName(field),
+                    className,
+                    field.getSimpleName(),
+                    typeUtils.erasure(field.asType())
+            ));
+        }
+        return """
+                %s
+                    static {
+                        try {
+                            var lookup = java.lang.invoke.MethodHandles.lookup();%s
+                        } catch (ReflectiveOperationException e) {
+                            throw new ExceptionInInitializerError(e);
+                        }
+                    }
+
+                """.formatted(declarations, initializers);
+    }
+
+    private String atomicMethods(String selfExpr, VariableElement field, String setterHooks) {
+        var fieldType = field.asType().toString();
+        var pascalName = pascal(field.getSimpleName().toString());
+        var handle = varHandleName(field);
+        var kind = field.asType().getKind();
+        var atomicMethods = new StringBuilder();
+        if (setterHooks.isEmpty()) {
+            atomicMethods.append("""
+                        /**
+                         * Atomically set %s to newValue if it currently holds expectedValue.
+                         */
+                        public boolean compareAndSet%s(%s expectedValue, %s newValue) {
+                            return %s.compareAndSet(%s, expectedValue, newValue);
+                        }
+
+                    """.formatted(
+                    field.getSimpleName(),
+                    pascalName, fieldType, fieldType,
+                    handle, selfExpr
+            ));
+        }
+        else {
+            atomicMethods.append("""
+                        /**
+                         * Atomically set %s to newValue if it currently holds expectedValue.
+                         */
+                        public boolean compareAndSet%s(%s expectedValue, %s newValue) {
+                            var set$ = %s.compareAndSet(%s, expectedValue, newValue);
+                            if (set$) {%s
+                            }
+                            return set$;
+                        }
+
+                    """.formatted(
+                    field.getSimpleName(),
+                    pascalName, fieldType, fieldType,
+                    handle, selfExpr,
+                    setterHooks.replace("\n", "\n    ")
+            ));
+        }
+        if (kind.isPrimitive() && kind != TypeKind.BOOLEAN && kind != TypeKind.CHAR) {
+            if (setterHooks.isEmpty()) {
+                atomicMethods.append("""
+                            /**
+                             * Atomically add delta to %s, returning the previous value.
+                             */
+                            public %s getAndAdd%s(%s delta) {
+                                return (%s) %s.getAndAdd(%s, delta);
+                            }
+
+                        """.formatted(
+                        field.getSimpleName(),
+                        fieldType, pascalName, fieldType,
+                        fieldType, handle, selfExpr
+                ));
+            }
+            else {
+                atomicMethods.append("""
+                            /**
+                             * Atomically add delta to %s, returning the previous value.
+                             */
+                            public %s getAndAdd%s(%s delta) {
+                                var previousValue = (%s) %s.getAndAdd(%s, delta);%s
+                                return previousValue;
+                            }
+
+                        """.formatted(
+                        field.getSimpleName(),
+                        fieldType, pascalName, fieldType,
+                        fieldType, handle, selfExpr, setterHooks
+                ));
+            }
+        }
+        String operator = switch (kind) {
+            case INT -> "java.util.function.IntUnaryOperator";
+            case LONG -> "java.util.function.LongUnaryOperator";
+            case DOUBLE -> "java.util.function.DoubleUnaryOperator";
+            case ARRAY, DECLARED -> "java.util.function.UnaryOperator<%s>".formatted(fieldType);
+            default -> null;
+        };
+        if (operator != null) {
+            String apply = switch (kind) {
+                case INT -> "applyAsInt";
+                case LONG -> "applyAsLong";
+                case DOUBLE -> "applyAsDouble";
+                default -> "apply";
+            };
+            atomicMethods.append("""
+                        /**
+                         * Atomically replace %s with the result of applying update to it, returning
+                         * the new value. The update may be applied more than once if other threads
+                         * change the field at the same time.
+                         */
+                        public %s update%s(%s update) {
+                            %s currentValue;
+                            %s newValue;
+                            do {
+                                currentValue = (%s) %s.getVolatile(%s);
+                                newValue = update.%s(currentValue);
+                            } while (!%s.weakCompareAndSet(%s, currentValue, newValue));%s
+                            return newValue;
+                        }
+
+                    """.formatted(
+                    field.getSimpleName(),
+                    fieldType, pascalName, operator,
+                    fieldType,
+                    fieldType,
+                    fieldType, handle, selfExpr,
+                    apply,
+                    handle, selfExpr, setterHooks
+            ));
+        }
+        return atomicMethods.toString();
+    }
+
+    /**
+     * Estimated size of the object header on a 64 bit JVM with compressed class pointers.
+     */
+    private static final int OBJECT_HEADER_SIZE = 12;
+
+    private static final int CACHE_LINE_SIZE = 64;
+
+    private record LayoutField(String description, int size) {
+    }
+
+    /**
+     * Estimated size of a field, assuming compressed oops.
+     */
+    private int fieldSize(TypeKind kind) {
+        return switch (kind) {
+            case LONG, DOUBLE -> 8;
+            case INT, FLOAT -> 4;
+            case SHORT, CHAR -> 2;
+            case BYTE, BOOLEAN -> 1;
+            default -> 4;
+        };
+    }
+
+    /**
+     * Estimates where each field will be placed the way HotSpot does: largest fields first,
+     * each in the first suitably aligned gap after the header.
+     *
+     * @return The text of the report and the estimated instance size.
+     */
+    private Map.Entry<String, Integer> footprintReport(Name className, List<LayoutField> layoutFields) {
+        var sorted = new ArrayList<>(layoutFields);
+        sorted.sort(Comparator.comparingInt(LayoutField::size).reversed());
+
+        var gaps = new ArrayList<int[]>();
+        var offsets = new int[sorted.size()];
+        int end = OBJECT_HEADER_SIZE;
+        for (int i = 0; i < sorted.size(); i++) {
+            int size = sorted.get(i).size();
+            int offset = -1;
+            for (var gap : gaps) {
+                int aligned = (gap[0] + size - 1) / size * size;
+                if (aligned + size <= gap[1]) {
+                    offset = aligned;
+                    if (aligned + size < gap[1]) {
+                        gaps.add(gaps.indexOf(gap) + 1, new int[] { aligned + size, gap[1] });
+                    }
+                    gap[1] = aligned;
+                    break;
+                }
+            }
+            if (offset == -1) {
+                offset = (end + size - 1) / size * size;
+                if (offset > end) {
+                    gaps.add(new int[] { end, offset });
+                }
+                end = offset + size;
+            }
+            offsets[i] = offset;
+        }
+        int total = (end + 7) / 8 * 8;
+
+        var order = new ArrayList<Integer>();
+        for (int i = 0; i < sorted.size(); i++) {
+            order.add(i);
+        }
+        order.sort(Comparator.comparingInt(i -> offsets[i]));
+
+        var report = new StringBuilder();
+        report.append("Estimated layout of %s, assuming a 64 bit JVM with compressed oops and class pointers:\n"
+                .formatted(className));
+        report.append("  offset  size  field\n");
+        report.append("%8d%6d  (object header)\n".formatted(0, OBJECT_HEADER_SIZE));
+        int used = OBJECT_HEADER_SIZE;
+        for (int i : order) {
+            var field = sorted.get(i);
+            report.append("%8d%6d  %s\n".formatted(offsets[i], field.size(), field.description()));
+            used += field.size();
+        }
+        if (total > used) {
+            report.append("%14d  (padding and gaps)\n".formatted(total - used));
+        }
+        report.append("Total: %d bytes".formatted(total));
+        return Map.entry(report.toString(), total);
+    }
+
+    /**
+     * Statement which writes a primitive value to a ByteBuffer named buffer at an absolute index.
+     */
+    private String putFixed(TypeKind kind, String index, String value) {
+        return switch (kind) {
+            case BOOLEAN -> "buffer.put(%s, (byte) (%s ? 1 : 0));".formatted(index, value);
+            case BYTE -> "buffer.put(%s, %s);".formatted(index, value);
+            case SHORT -> "buffer.putShort(%s, %s);".formatted(index, value);
+            case CHAR -> "buffer.putChar(%s, %s);".formatted(index, value);
+            case INT -> "buffer.putInt(%s, %s);".formatted(index, value);
+            case LONG -> "buffer.putLong(%s, %s);".formatted(index, value);
+            case FLOAT -> "buffer.putFloat(%s, %s);".formatted(index, value);
+            case DOUBLE -> "buffer.putDouble(%s, %s);".formatted(index, value);
+            default -> throw new IllegalArgumentException(kind.toString());
+        };
+    }
+
+    /**
+     * Expression which reads a primitive value from a ByteBuffer named buffer at an absolute index.
+     */
+    private String getFixed(TypeKind kind, String buffer, String index) {
+        return switch (kind) {
+            case BOOLEAN -> "%s.get(%s) != 0".formatted(buffer, index);
+            case BYTE -> "%s.get(%s)".formatted(buffer, index);
+            case SHORT -> "%s.getShort(%s)".formatted(buffer, index);
+            case CHAR -> "%s.getChar(%s)".formatted(buffer, index);
+            case INT -> "%s.getInt(%s)".formatted(buffer, index);
+            case LONG -> "%s.getLong(%s)".formatted(buffer, index);
+            case FLOAT -> "%s.getFloat(%s)".formatted(buffer, index);
+            case DOUBLE -> "%s.getDouble(%s)".formatted(buffer, index);
+            default -> throw new IllegalArgumentException(kind.toString());
+        };
+    }
+
+    private String fixedIndex(String offset, int fieldOffset) {
+        return fieldOffset == 0 ? offset : offset + " + " + fieldOffset;
+    }
+
+    private String fixedLayoutMethods(List<VariableElement> fields) {
+        var fixedLayoutMethods = new StringBuilder();
+        int size = 0;
+        for (var field : fields) {
+            fixedLayoutMethods.append("""
+                        /**
+                         * The offset of %s within the fixed layout.
+                         */
+                        public static final int %s_OFFSET = %d;
+
+                    """.formatted(field.getSimpleName(), constantName(field.getSimpleName().toString()), size));
+            size += fieldSize(field.asType().getKind());
+        }
+        fixedLayoutMethods.append("""
+                    /**
+                     * The number of bytes used by writeAt and readAt.
+                     */
+                    public static final int FIXED_SIZE = %d;
+
+                    /**
+                     * Writes every field to a buffer starting at the given index, without moving
+                     * its position. Fields are packed in declaration order using the byte order
+                     * of the buffer.
+                     */
+                    public void writeAt(java.nio.ByteBuffer buffer, int offset) {
+                """.formatted(size));
+        int fieldOffset = 0;
+        for (var field : fields) {
+            var kind = field.asType().getKind();
+            fixedLayoutMethods.append("        %s\n".formatted(
+                    putFixed(kind, fixedIndex("offset", fieldOffset), getterName(field) + "()")
+            ));
+            fieldOffset += fieldSize(kind);
+        }
+        fixedLayoutMethods.append("""
+                    }
+
+                    /**
+                     * Reads every field from a buffer starting at the given index, without moving
+                     * its position.
+                     */
+                    public void readAt(java.nio.ByteBuffer buffer, int offset) {
+                """);
+        fieldOffset = 0;
+        for (var field : fields) {
+            var kind = field.asType().getKind();
+            fixedLayoutMethods.append("        %s(%s);\n".formatted(
+                    setterName(field), getFixed(kind, "buffer", fixedIndex("offset", fieldOffset))
+            ));
+            fieldOffset += fieldSize(kind);
+        }
+        fixedLayoutMethods.append("""
+                    }
+
+                """);
+        return fixedLayoutMethods.toString();
+    }
+
+    private String viewClass(String visibility, Name className, List<VariableElement> fields, boolean hasValidConstructor) {
+        int size = fields.stream().mapToInt(field -> fieldSize(field.asType().getKind())).sum();
+        var viewClass = new StringBuilder();
+        viewClass.append("""
+                /**
+                 * Reads instances of %s in place from a buffer written with writeAt, without
+                 * creating them. A single view can be moved between records.
+                 */
+                %sfinal class %sView {
+                    private final java.nio.ByteBuffer buffer;
+                    private int offset;
+
+                    /**
+                     * Create a view of the first record in the buffer.
+                     */
+                    public %sView(java.nio.ByteBuffer buffer) {
+                        this.buffer = buffer;
+                    }
+
+                    /**
+                     * @return The number of complete records before the limit of the buffer.
+                     */
+                    public int count() {
+                        return this.buffer.limit() / %d;
+                    }
+
+                    /**
+                     * Move the view to the record at the given index.
+                     *
+                     * @throws IndexOutOfBoundsException If there is no complete record at the index.
+                     */
+                    public %sView at(int index) {
+                        java.util.Objects.checkIndex(index, count());
+                        this.offset = index * %d;
+                        return this;
+                    }
+
+                    /**
+                     * @return The index in the buffer where the current record starts.
+                     */
+                    public int offset() {
+                        return this.offset;
+                    }
+
+                """.formatted(
+                className,
+                visibility, className,
+                className,
+                size,
+                className,
+                size
+        ));
+        int fieldOffset = 0;
+        for (var field : fields) {
+            var kind = field.asType().getKind();
+            viewClass.append("""
+                        /**
+                         * Get the value of %s in the current record.
+                         */
+                        public %s %s() {
+                            return %s;
+                        }
+
+                    """.formatted(
+                    field.getSimpleName(),
+                    field.asType(), getterName(field),
+                    getFixed(kind, "this.buffer", fixedIndex("this.offset", fieldOffset))
+            ));
+            fieldOffset += fieldSize(kind);
+        }
+        if (hasValidConstructor) {
+            viewClass.append("""
+                        /**
+                         * Creates an instance from the current record.
+                         */
+                        public %s toBean() {
+                            var o$ = new %s();
+                            o$.readAt(this.buffer, this.offset);
+                            return o$;
+                        }
+
+                    """.formatted(className, className));
+        }
+        viewClass.append("}\n");
+        return viewClass.toString();
+    }
+
+    /**
+     * Whether values of a type can be mixed into hash64, either directly or because the
+     * type has its own hash64 method.
+     */
+    private boolean supportedByHash64(TypeMirror type) {
+        if (type.getKind().isPrimitive() || unboxedKind(type) != null || isString(type) || isEnum(type)) {
+            return true;
+        }
+        if (type instanceof ArrayType arrayType) {
+            return arrayType.getComponentType().getKind().isPrimitive();
+        }
+        if (!(type instanceof DeclaredType declaredType)) {
+            return false;
+        }
+        var typeElement = (TypeElement) declaredType.asElement();
+        var magicBean = typeElement.getAnnotation(MagicBean.class);
+        if (magicBean != null && magicBean.hash64()) {
+            return true;
+        }
+        return ElementFilter.methodsIn(this.processingEnv.getElementUtils().getAllMembers(typeElement))
+                .stream()
+                .anyMatch(method -> method.getSimpleName().contentEquals("hash64")
+                        && method.getParameters().isEmpty()
+                        && method.getReturnType().getKind() == TypeKind.LONG
+                        && method.getModifiers().contains(Modifier.PUBLIC)
+                        && !method.getModifiers().contains(Modifier.STATIC));
+    }
+
+    /**
+     * Expression for the canonical 64 bit value of a non-null primitive.
+     */
+    private String hash64Value(TypeKind kind, String value) {
+        return switch (kind) {
+            case BOOLEAN -> "(%s ? 1L : 0L)".formatted(value);
+            case FLOAT -> "Float.floatToIntBits(%s)".formatted(value);
+            case DOUBLE -> "Double.doubleToLongBits(%s)".formatted(value);
+            default -> value;
+        };
+    }
+
+    private String hash64Method(String selfExpr, List<VariableElement> fields) {
+        var hash64Method = new StringBuilder();
+        hash64Method.append("""
+                    /**
+                     * Computes a 64 bit hash of every field which is the same on every JVM. Strings
+                     * and enum names are hashed by their characters, arrays by their elements, and
+                     * other objects by their own hash64 method.
+                     */
+                    public long hash64() {
+                        long h = 0;
+                """);
+        for (var field : fields) {
+            var type = field.asType();
+            var value = fieldValue(selfExpr, field);
+            if (type.getKind().isPrimitive()) {
+                hash64Method.append("        h = hashStep$(h, %s);\n".formatted(hash64Value(type.getKind(), value)));
+                continue;
+            }
+
+            String nonNull;
+            if (unboxedKind(type) != null) {
+                nonNull = "h = hashStep$(h, %s);".formatted(hash64Value(unboxedKind(type), "v$"));
+            }
+            else if (isString(type)) {
+                nonNull = "h = hashStep$(h, hashString$(v$));";
+            }
+            else if (isEnum(type)) {
+                nonNull = "h = hashStep$(h, hashString$(v$.name()));";
+            }
+            else if (type instanceof ArrayType arrayType) {
+                nonNull = """
+                        h = hashStep$(h, v$.length);
+                                        for (var e$ : v$) {
+                                            h = hashStep$(h, %s);
+                                        }\
+                        """.formatted(hash64Value(arrayType.getComponentType().getKind(), "e$"));
+            }
+            else {
+                nonNull = "h = hashStep$(h, v$.hash64());";
+            }
+            hash64Method.append("""
+                            {
+                                var v$ = %s;
+                                if (v$ == null) {
+                                    h = hashStep$(h, NULL_HASH$);
+                                }
+                                else {
+                                    %s
+                                }
+                            }
+                    """.formatted(value, nonNull));
+        }
+        hash64Method.append("""
+                        return hashFinish$(h ^ %d);
+                    }
+
+                    private static final long NULL_HASH$ = 0x9e3779b97f4a7c15L;
+
+                    private static long hashStep$(long h, long k) {
+                        k *= 0x87c37b91114253d5L;
+                        k = Long.rotateLeft(k, 31);
+                        k *= 0x4cf5ad432745937fL;
+                        h ^= k;
+                        return Long.rotateLeft(h, 27) * 5 + 0x52dce729;
+                    }
+
+                    private static long hashFinish$(long h) {
+                        h ^= h >>> 33;
+                        h *= 0xff51afd7ed558ccdL;
+                        h ^= h >>> 33;
+                        h *= 0xc4ceb9fe1a85ec53L;
+                        h ^= h >>> 33;
+                        return h;
+                    }
+
+                    private static long hashString$(String value) {
+                        long h = value.length();
+                        int i = 0;
+                        for (; i + 4 <= value.length(); i += 4) {
+                            h = hashStep$(h, value.charAt(i)
+                                    | (long) value.charAt(i + 1) << 16
+                                    | (long) value.charAt(i + 2) << 32
+                                    | (long) value.charAt(i + 3) << 48);
+                        }
+                        long k = 0;
+                        for (int shift = 0; i < value.length(); i++, shift += 16) {
+                            k |= (long) value.charAt(i) << shift;
+                        }
+                        return hashFinish$(hashStep$(h, k));
+                    }
+
+                """.formatted(fields.size()));
+        return hash64Method.toString();
+    }
+
+    private static final Set<String> JDBC_OBJECT_TYPES = Set.of(
+            "java.time.LocalDate",
+            "java.time.LocalTime",
+            "java.time.LocalDateTime",
+            "java.time.OffsetDateTime"
+    );
+
+    private boolean supportedByJdbc(TypeMirror type) {
+        return (type.getKind().isPrimitive() && type.getKind() != TypeKind.CHAR)
+                || (unboxedKind(type) != null && unboxedKind(type) != TypeKind.CHAR)
+                || isString(type)
+                || isByteArray(type)
+                || isEnum(type)
+                || "java.math.BigDecimal".equals(type.toString())
+                || JDBC_OBJECT_TYPES.contains(type.toString());
+    }
+
+    /**
+     * The suffix of the ResultSet getter and PreparedStatement setter for a primitive, along
+     * with the java.sql.Types constant used to bind a null of its boxed type.
+     */
+    private String[] jdbcPrimitive(TypeKind kind) {
+        return switch (kind) {
+            case BOOLEAN -> new String[] { "Boolean", "BOOLEAN" };
+            case BYTE -> new String[] { "Byte", "TINYINT" };
+            case SHORT -> new String[] { "Short", "SMALLINT" };
+            case INT -> new String[] { "Int", "INTEGER" };
+            case LONG -> new String[] { "Long", "BIGINT" };
+            case FLOAT -> new String[] { "Float", "REAL" };
+            case DOUBLE -> new String[] { "Double", "DOUBLE" };
+            default -> throw new IllegalArgumentException(kind.toString());
+        };
+    }
+
+    private String jdbcMethods(Name className, List<VariableElement> fields) {
+        var typeUtils = this.processingEnv.getTypeUtils();
+        var jdbcMethods = new StringBuilder();
+        jdbcMethods.append("""
+                    /**
+                     * Creates an instance from the current row of a ResultSet, reading each field from
+                     * the column at its position in declaration order, starting from 1.
+                     */
+                    public static %s fromRow(java.sql.ResultSet resultSet) throws java.sql.SQLException {
+                        var bean$ = new %s();
+                """.formatted(className, className));
+        for (int i = 0; i < fields.size(); i++) {
+            var field = fields.get(i);
+            var type = field.asType();
+            var column = i + 1;
+            if (type.getKind().isPrimitive()) {
+                jdbcMethods.append("        bean$.%s(resultSet.get%s(%d));\n".formatted(
+                        setterName(field), jdbcPrimitive(type.getKind())[0], column
+                ));
+            }
+            else if (unboxedKind(type) != null) {
+                jdbcMethods.append("""
+                                var col$%d = resultSet.get%s(%d);
+                                bean$.%s(resultSet.wasNull() ? null : col$%d);
+                        """.formatted(
+                        column, jdbcPrimitive(unboxedKind(type))[0], column,
+                        setterName(field), column
+                ));
+            }
+            else if (isEnum(type)) {
+                jdbcMethods.append("""
+                                var col$%d = resultSet.getString(%d);
+                                bean$.%s(col$%d == null ? null : %s.valueOf(col$%d));
+                        """.formatted(
+                        column, column,
+                        setterName(field), column, typeUtils.erasure(type), column
+                ));
+            }
+            else {
+                String read;
+                if (isString(type)) {
+                    read = "resultSet.getString(%d)".formatted(column);
+                }
+                else if (isByteArray(type)) {
+                    read = "resultSet.getBytes(%d)".formatted(column);
+                }
+                else if ("java.math.BigDecimal".equals(type.toString())) {
+                    read = "resultSet.getBigDecimal(%d)".formatted(column);
+                }
+                else {
+                    read = "resultSet.getObject(%d, %s.class)".formatted(column, type);
+                }
+                jdbcMethods.append("        bean$.%s(%s);\n".formatted(setterName(field), read));
+            }
+        }
+        jdbcMethods.append("""
+                        return bean$;
+                    }
+
+                    /**
+                     * Binds every field, in declaration order, to the parameters of a PreparedStatement
+                     * starting after the given offset. Binding the first row of a statement uses an
+                     * offset of 0.
+                     *
+                     * @return The offset to use for the next row.
+                     */
+                    public int bind(java.sql.PreparedStatement statement, int offset) throws java.sql.SQLException {
+                """);
+        for (int i = 0; i < fields.size(); i++) {
+            var field = fields.get(i);
+            var type = field.asType();
+            var parameter = "offset + %d".formatted(i + 1);
+            var value = getterName(field) + "()";
+            if (type.getKind().isPrimitive()) {
+                jdbcMethods.append("        statement.set%s(%s, %s);\n".formatted(
+                        jdbcPrimitive(type.getKind())[0], parameter, value
+                ));
+            }
+            else if (unboxedKind(type) != null) {
+                var primitive = jdbcPrimitive(unboxedKind(type));
+                jdbcMethods.append("""
+                                var %s$ = %s;
+                                if (%s$ == null) {
+                                    statement.setNull(%s, java.sql.Types.%s);
+                                }
+                                else {
+                                    statement.set%s(%s, %s$);
+                                }
+                        """.formatted(
+                        field.getSimpleName(), value,
+                        field.getSimpleName(),
+                        parameter, primitive[1],
+                        primitive[0], parameter, field.getSimpleName()
+                ));
+            }
+            else if (isEnum(type)) {
+                jdbcMethods.append("""
+                                var %s$ = %s;
+                                statement.setString(%s, %s$ == null ? null : %s$.name());
+                        """.formatted(
+                        field.getSimpleName(), value,
+                        parameter, field.getSimpleName(), field.getSimpleName()
+                ));
+            }
+            else {
+                String setter;
+                if (isString(type)) {
+                    setter = "setString";
+                }
+                else if (isByteArray(type)) {
+                    setter = "setBytes";
+                }
+                else if ("java.math.BigDecimal".equals(type.toString())) {
+                    setter = "setBigDecimal";
+                }
+                else {
+                    setter = "setObject";
+                }
+                jdbcMethods.append("        statement.%s(%s, %s);\n".formatted(setter, parameter, value));
+            }
+        }
+        jdbcMethods.append("""
+                        return offset + %d;
+                    }
+
+                """.formatted(fields.size()));
+        return jdbcMethods.toString();
+    }
+
+    private boolean supportedByJson(TypeMirror type) {
+        return type.getKind().isPrimitive()
+                || unboxedKind(type) != null
+                || isString(type)
+                || isEnum(type);
+    }
+
+    /**
+     * Statement which writes a non-null primitive value to an Appendable named out.
+     */
+    private String writeJsonPrimitive(TypeKind kind, String value) {
+        return switch (kind) {
+            case BOOLEAN -> "out.append(%s ? \"true\" : \"false\");".formatted(value);
+            case CHAR -> "writeJsonString$(out, String.valueOf(%s));".formatted(value);
+            case FLOAT -> "out.append(Float.isFinite(%s) ? String.valueOf(%s) : \"\\\"\" + %s + \"\\\"\");"
+                    .formatted(value, value, value);
+            case DOUBLE -> "out.append(Double.isFinite(%s) ? String.valueOf(%s) : \"\\\"\" + %s + \"\\\"\");"
+                    .formatted(value, value, value);
+            default -> "out.append(String.valueOf(%s));".formatted(value);
+        };
+    }
+
+    private String readJsonPrimitive(TypeKind kind) {
+        return switch (kind) {
+            case BOOLEAN -> "parser.readBoolean()";
+            case BYTE -> "(byte) parser.readLong(Byte.MIN_VALUE, Byte.MAX_VALUE)";
+            case SHORT -> "(short) parser.readLong(Short.MIN_VALUE, Short.MAX_VALUE)";
+            case CHAR -> "parser.readChar()";
+            case INT -> "(int) parser.readLong(Integer.MIN_VALUE, Integer.MAX_VALUE)";
+            case LONG -> "parser.readLong(Long.MIN_VALUE, Long.MAX_VALUE)";
+            case FLOAT -> "parser.readFloat()";
+            case DOUBLE -> "parser.readDouble()";
+            default -> throw new IllegalArgumentException(kind.toString());
+        };
+    }
+
+    private String jsonMethods(String selfExpr, List<VariableElement> fields) {
+        var jsonMethods = new StringBuilder();
+        jsonMethods.append("""
+                    /**
+                     * Writes every field as a JSON object.
+                     */
+                    public <A extends Appendable> A writeJson(A out) throws java.io.IOException {
+                        out.append('{');
+                """);
+        for (int i = 0; i < fields.size(); i++) {
+            var field = fields.get(i);
+            var type = field.asType();
+            var value = fieldValue(selfExpr, field);
+            jsonMethods.append("        out.append(\"%s\\\"%s\\\":\");\n".formatted(
+                    i == 0 ? "" : ",",
+                    field.getSimpleName()
+            ));
+            if (type.getKind().isPrimitive()) {
+                jsonMethods.append("        %s\n".formatted(writeJsonPrimitive(type.getKind(), value)));
+            }
+            else if (isString(type)) {
+                jsonMethods.append("        writeJsonString$(out, %s);\n".formatted(value));
+            }
+            else {
+                jsonMethods.append("""
+                                if (%s == null) {
+                                    out.append("null");
+                                }
+                                else {
+                                    %s
+                                }
+                        """.formatted(
+                        value,
+                        isEnum(type)
+                                ? "writeJsonString$(out, %s.name());".formatted(value)
+                                : writeJsonPrimitive(unboxedKind(type), value)
+                ));
+            }
+        }
+        jsonMethods.append("""
+                        out.append('}');
+                        return out;
+                    }
+
+                    /**
+                     * Reads fields from a JSON object, in the format written by writeJson. Properties
+                     * which do not match a field are skipped.
+                     *
+                     * @throws IllegalArgumentException If the input is not a valid JSON object.
+                     */
+                    public void readJson(CharSequence json) {
+                        var parser = new JsonParser$(json);
+                        parser.expect('{');
+                        if (!parser.consume('}')) {
+                            do {
+                                var name = parser.readKey();
+                                parser.expect(':');
+                                switch (name) {
+                """);
+        for (var field : fields) {
+            var type = field.asType();
+            String read;
+            if (type.getKind().isPrimitive()) {
+                read = readJsonPrimitive(type.getKind());
+            }
+            else if (isString(type)) {
+                read = "parser.readString()";
+            }
+            else if (isEnum(type)) {
+                read = "parser.readEnum(%s.class)".formatted(this.processingEnv.getTypeUtils().erasure(type));
+            }
+            else {
+                read = "parser.consumeNull() ? null : " + readJsonPrimitive(unboxedKind(type));
+            }
+            jsonMethods.append("                    case \"%s\" -> %s(%s);\n".formatted(
+                    field.getSimpleName(),
+                    setterName(field),
+                    read
+            ));
+        }
+        jsonMethods.append("""
+                                    default -> parser.skipValue();
+                                }
+                            } while (parser.consume(','));
+                            parser.expect('}');
+                        }
+                        parser.end();
+                    }
+
+                    /**
+                     * Reads fields from a JSON object, in the format written by writeJson.
+                     *
+                     * @throws IllegalArgumentException If the input is not a valid JSON object.
+                     */
+                    public void readJson(java.io.Reader reader) throws java.io.IOException {
+                        var json = new StringBuilder();
+                        var buffer = new char[8192];
+                        int read;
+                        while ((read = reader.read(buffer)) != -1) {
+                            json.append(buffer, 0, read);
+                        }
+                        readJson(json);
+                    }
+
+                """);
+        jsonMethods.append(JSON_SUPPORT);
+        return jsonMethods.toString();
+    }
+
+    private static final String JSON_SUPPORT = """
+                private static void writeJsonString$(Appendable out, String value) throws java.io.IOException {
+                    if (value == null) {
+                        out.append("null");
+                        return;
+                    }
+                    out.append('"');
+                    int start = 0;
+                    for (int i = 0; i < value.length(); i++) {
+                        char c = value.charAt(i);
+                        if (c == '"' || c == '\\\\' || c < 0x20) {
+                            out.append(value, start, i);
+                            switch (c) {
+                                case '"' -> out.append("\\\\\\"");
+                                case '\\\\' -> out.append("\\\\\\\\");
+                                case '\\n' -> out.append("\\\\n");
+                                case '\\r' -> out.append("\\\\r");
+                                case '\\t' -> out.append("\\\\t");
+                                default -> out.append(String.format("\\\\u%04x", (int) c));
+                            }
+                            start = i + 1;
+                        }
+                    }
+                    out.append(value, start, value.length());
+                    out.append('"');
+                }
+
+                private static final class JsonParser$ {
+                    private final CharSequence json;
+                    private int position;
+
+                    JsonParser$(CharSequence json) {
+                        this.json = json;
+                    }
+
+                    private IllegalArgumentException error(String expected) {
+                        return new IllegalArgumentException(
+                                "Expected " + expected + " at position " + this.position + " of JSON input"
+                        );
+                    }
+
+                    private void skipWhitespace() {
+                        while (this.position < this.json.length()) {
+                            char c = this.json.charAt(this.position);
+                            if (c != ' ' && c != '\\t' && c != '\\n' && c != '\\r') {
+                                return;
+                            }
+                            this.position++;
+                        }
+                    }
+
+                    private char peek() {
+                        skipWhitespace();
+                        if (this.position >= this.json.length()) {
+                            throw error("a value");
+                        }
+                        return this.json.charAt(this.position);
+                    }
+
+                    boolean consume(char c) {
+                        skipWhitespace();
+                        if (this.position < this.json.length() && this.json.charAt(this.position) == c) {
+                            this.position++;
+                            return true;
+                        }
+                        return false;
+                    }
+
+                    void expect(char c) {
+                        if (!consume(c)) {
+                            throw error("'" + c + "'");
+                        }
+                    }
+
+                    void end() {
+                        skipWhitespace();
+                        if (this.position != this.json.length()) {
+                            throw error("the end of input");
+                        }
+                    }
+
+                    private boolean consumeLiteral(String literal) {
+                        skipWhitespace();
+                        int end = this.position + literal.length();
+                        if (end > this.json.length()) {
+                            return false;
+                        }
+                        for (int i = 0; i < literal.length(); i++) {
+                            if (this.json.charAt(this.position + i) != literal.charAt(i)) {
+                                return false;
+                            }
+                        }
+                        this.position = end;
+                        return true;
+                    }
+
+                    boolean consumeNull() {
+                        return consumeLiteral("null");
+                    }
+
+                    boolean readBoolean() {
+                        if (consumeLiteral("true")) {
+                            return true;
+                        }
+                        else if (consumeLiteral("false")) {
+                            return false;
+                        }
+                        else {
+                            throw error("a boolean");
+                        }
+                    }
+
+                    String readString() {
+                        if (consumeNull()) {
+                            return null;
+                        }
+                        expect('"');
+                        int start = this.position;
+                        StringBuilder sb = null;
+                        while (this.position < this.json.length()) {
+                            char c = this.json.charAt(this.position);
+                            if (c == '"') {
+                                var value = sb == null
+                                        ? this.json.subSequence(start, this.position).toString()
+                                        : sb.append(this.json, start, this.position).toString();
+                                this.position++;
+                                return value;
+                            }
+                            else if (c == '\\\\') {
+                                if (sb == null) {
+                                    sb = new StringBuilder();
+                                }
+                                sb.append(this.json, start, this.position);
+                                if (this.position + 1 >= this.json.length()) {
+                                    throw error("an escape sequence");
+                                }
+                                char escaped = this.json.charAt(this.position + 1);
+                                this.position += 2;
+                                switch (escaped) {
+                                    case '"', '\\\\', '/' -> sb.append(escaped);
+                                    case 'b' -> sb.append('\\b');
+                                    case 'f' -> sb.append('\\f');
+                                    case 'n' -> sb.append('\\n');
+                                    case 'r' -> sb.append('\\r');
+                                    case 't' -> sb.append('\\t');
+                                    case 'u' -> {
+                                        if (this.position + 4 > this.json.length()) {
+                                            throw error("a unicode escape");
+                                        }
+                                        try {
+                                            sb.append((char) Integer.parseInt(this.json, this.position, this.position + 4, 16));
+                                        } catch (NumberFormatException e) {
+                                            throw error("a unicode escape");
+                                        }
+                                        this.position += 4;
+                                    }
+                                    default -> throw error("an escape sequence");
+                                }
+                                start = this.position;
+                            }
+                            else {
+                                this.position++;
+                            }
+                        }
+                        throw error("'\\"'");
+                    }
+
+                    String readKey() {
+                        skipWhitespace();
+                        if (this.position >= this.json.length() || this.json.charAt(this.position) != '"') {
+                            throw error("a property name");
+                        }
+                        return readString();
+                    }
+
+                    char readChar() {
+                        var value = readString();
+                        if (value == null || value.length() != 1) {
+                            throw error("a single character string");
+                        }
+                        return value.charAt(0);
+                    }
+
+                    <E extends Enum<E>> E readEnum(Class<E> type) {
+                        var value = readString();
+                        try {
+                            return value == null ? null : Enum.valueOf(type, value);
+                        } catch (IllegalArgumentException e) {
+                            throw error("a constant of " + type.getName());
+                        }
+                    }
+
+                    private int numberEnd() {
+                        skipWhitespace();
+                        int end = this.position;
+                        while (end < this.json.length()) {
+                            char c = this.json.charAt(end);
+                            if ((c >= '0' && c <= '9') || c == '-' || c == '+' || c == '.' || c == 'e' || c == 'E') {
+                                end++;
+                            }
+                            else {
+                                break;
+                            }
+                        }
+                        if (end == this.position) {
+                            throw error("a number");
+                        }
+                        return end;
+                    }
+
+                    long readLong(long min, long max) {
+                        int end = numberEnd();
+                        long value;
+                        try {
+                            value = Long.parseLong(this.json, this.position, end, 10);
+                        } catch (NumberFormatException e) {
+                            throw error("an integer");
+                        }
+                        if (value < min || value > max) {
+                            throw error("an integer between " + min + " and " + max);
+                        }
+                        this.position = end;
+                        return value;
+                    }
+
+                    private String readNumberText() {
+                        if (peek() == '"') {
+                            var value = readString();
+                            if (!"NaN".equals(value) && !"Infinity".equals(value) && !"-Infinity".equals(value)) {
+                                throw error("a number");
+                            }
+                            return value;
+                        }
+                        int end = numberEnd();
+                        var value = this.json.subSequence(this.position, end).toString();
+                        this.position = end;
+                        return value;
+                    }
+
+                    double readDouble() {
+                        try {
+                            return Double.parseDouble(readNumberText());
+                        } catch (NumberFormatException e) {
+                            throw error("a number");
+                        }
+                    }
+
+                    float readFloat() {
+                        try {
+                            return Float.parseFloat(readNumberText());
+                        } catch (NumberFormatException e) {
+                            throw error("a number");
+                        }
+                    }
+
+                    void skipValue() {
+                        char c = peek();
+                        if (c == '{' || c == '[') {
+                            char close = c == '{' ? '}' : ']';
+                            this.position++;
+                            if (consume(close)) {
+                                return;
+                            }
+                            do {
+                                if (c == '{') {
+                                    readKey();
+                                    expect(':');
+                                }
+                                skipValue();
+                            } while (consume(','));
+                            expect(close);
+                        }
+                        else if (c == '"') {
+                            readString();
+                        }
+                        else if (!consumeLiteral("true") && !consumeLiteral("false") && !consumeNull()) {
+                            readDouble();
+                        }
+                    }
+                }
+
+            """;
+
+    private String binaryCodecMethods(String selfExpr, List<VariableElement> fields, boolean externalizable) {
+        var binaryCodecMethods = new StringBuilder();
+        for (var field : fields) {
+            if (isEnum(field.asType())) {
+                binaryCodecMethods.append("    private static final %s[] %sValues$ = %s.values();\n".formatted(
+                        field.asType(),
+                        field.getSimpleName(),
+                        field.asType()
+                ));
+            }
+        }
+        if (!binaryCodecMethods.isEmpty()) {
+            binaryCodecMethods.append("\n");
+        }
+
+        for (var buffer : List.of(false, true)) {
+            if (buffer) {
+                binaryCodecMethods.append("""
+                            /**
+                             * Writes every field into the given buffer, starting at its current position.
+                             */
+                            public void writeTo(java.nio.ByteBuffer buffer) {
+                        """);
+            }
+            else {
+                binaryCodecMethods.append("""
+                            /**
+                             * Writes every field to the given output.
+                             */
+                            public void writeTo(java.io.DataOutput out) throws java.io.IOException {
+                        """);
+            }
+            for (var field : fields) {
+                binaryCodecMethods.append("        ");
+                binaryCodecMethods.append(writeField(selfExpr, field, buffer));
+                binaryCodecMethods.append("\n");
+            }
+            binaryCodecMethods.append("    }\n\n");
+
+            if (buffer) {
+                binaryCodecMethods.append("""
+                            /**
+                             * Reads every field from the given buffer, in the format written by writeTo.
+                             */
+                            public void readFrom(java.nio.ByteBuffer buffer) {
+                        """);
+            }
+            else {
+                binaryCodecMethods.append("""
+                            /**
+                             * Reads every field from the given input, in the format written by writeTo.
+                             */
+                            public void readFrom(java.io.DataInput in) throws java.io.IOException {
+                        """);
+            }
+            for (var field : fields) {
+                binaryCodecMethods.append("        ");
+                binaryCodecMethods.append(readField(field, buffer));
+                binaryCodecMethods.append("\n");
+            }
+            binaryCodecMethods.append("    }\n\n");
+        }
+
+        if (externalizable) {
+            binaryCodecMethods.append("""
+                        @Override
+                        public void writeExternal(java.io.ObjectOutput out) throws java.io.IOException {
+                            writeTo(out);
+                        }
+
+                        @Override
+                        public void readExternal(java.io.ObjectInput in) throws java.io.IOException {
+                            readFrom(in);
+                        }
+
+                    """);
+        }
+
+        binaryCodecMethods.append("""
+                    private static void writeVarLong$(java.io.DataOutput out, long value) throws java.io.IOException {
+                        while ((value & ~0x7FL) != 0) {
+                            out.writeByte((int) ((value & 0x7F) | 0x80));
+                            value >>>= 7;
+                        }
+                        out.writeByte((int) value);
+                    }
+
+                    private static void writeVarLong$(java.nio.ByteBuffer buffer, long value) {
+                        while ((value & ~0x7FL) != 0) {
+                            buffer.put((byte) ((value & 0x7F) | 0x80));
+                            value >>>= 7;
+                        }
+                        buffer.put((byte) value);
+                    }
+
+                    private static long readVarLong$(java.io.DataInput in) throws java.io.IOException {
+                        long value = 0;
+                        for (int shift = 0; shift < 64; shift += 7) {
+                            byte b = in.readByte();
+                            value |= (long) (b & 0x7F) << shift;
+                            if (b >= 0) {
+                                return value;
+                            }
+                        }
+                        throw new java.io.IOException("Malformed variable length integer");
+                    }
+
+                    private static long readVarLong$(java.nio.ByteBuffer buffer) {
+                        long value = 0;
+                        for (int shift = 0; shift < 64; shift += 7) {
+                            byte b = buffer.get();
+                            value |= (long) (b & 0x7F) << shift;
+                            if (b >= 0) {
+                                return value;
+                            }
+                        }
+                        throw new IllegalArgumentException("Malformed variable length integer");
+                    }
+
+                """);
+
+        var kinds = fields.stream()
+                .map(field -> field.asType().getKind().isPrimitive()
+                        ? field.asType().getKind()
+                        : unboxedKind(field.asType()))
+                .collect(Collectors.toSet());
+        if (kinds.contains(TypeKind.INT)) {
+            binaryCodecMethods.append("""
+                        private static void writeInt$(java.io.DataOutput out, int value) throws java.io.IOException {
+                            writeVarLong$(out, Integer.toUnsignedLong((value << 1) ^ (value >> 31)));
+                        }
+
+                        private static void writeInt$(java.nio.ByteBuffer buffer, int value) {
+                            writeVarLong$(buffer, Integer.toUnsignedLong((value << 1) ^ (value >> 31)));
+                        }
+
+                        private static int readInt$(java.io.DataInput in) throws java.io.IOException {
+                            int value = (int) readVarLong$(in);
+                            return (value >>> 1) ^ -(value & 1);
+                        }
+
+                        private static int readInt$(java.nio.ByteBuffer buffer) {
+                            int value = (int) readVarLong$(buffer);
+                            return (value >>> 1) ^ -(value & 1);
+                        }
+
+                    """);
+        }
+        if (kinds.contains(TypeKind.LONG)) {
+            binaryCodecMethods.append("""
+                        private static void writeLong$(java.io.DataOutput out, long value) throws java.io.IOException {
+                            writeVarLong$(out, (value << 1) ^ (value >> 63));
+                        }
+
+                        private static void writeLong$(java.nio.ByteBuffer buffer, long value) {
+                            writeVarLong$(buffer, (value << 1) ^ (value >> 63));
+                        }
+
+                        private static long readLong$(java.io.DataInput in) throws java.io.IOException {
+                            long value = readVarLong$(in);
+                            return (value >>> 1) ^ -(value & 1);
+                        }
+
+                        private static long readLong$(java.nio.ByteBuffer buffer) {
+                            long value = readVarLong$(buffer);
+                            return (value >>> 1) ^ -(value & 1);
+                        }
+
+                    """);
+        }
+        if (fields.stream().anyMatch(field -> isString(field.asType()) || isByteArray(field.asType()))) {
+            binaryCodecMethods.append("""
+                        private static void writeBytes$(java.io.DataOutput out, byte[] value) throws java.io.IOException {
+                            if (value == null) {
+                                writeVarLong$(out, 0);
+                            }
+                            else {
+                                writeVarLong$(out, value.length + 1L);
+                                out.write(value);
+                            }
+                        }
+
+                        private static void writeBytes$(java.nio.ByteBuffer buffer, byte[] value) {
+                            if (value == null) {
+                                writeVarLong$(buffer, 0);
+                            }
+                            else {
+                                writeVarLong$(buffer, value.length + 1L);
+                                buffer.put(value);
+                            }
+                        }
+
+                        private static byte[] readBytes$(java.io.DataInput in) throws java.io.IOException {
+                            int length = (int) readVarLong$(in) - 1;
+                            if (length < 0) {
+                                return null;
+                            }
+                            var value = new byte[length];
+                            in.readFully(value);
+                            return value;
+                        }
+
+                        private static byte[] readBytes$(java.nio.ByteBuffer buffer) {
+                            int length = (int) readVarLong$(buffer) - 1;
+                            if (length < 0) {
+                                return null;
+                            }
+                            var value = new byte[length];
+                            buffer.get(value);
+                            return value;
+                        }
+
+                    """);
+        }
+        if (fields.stream().anyMatch(field -> isString(field.asType()))) {
+            binaryCodecMethods.append("""
+                        private static void writeString$(java.io.DataOutput out, String value) throws java.io.IOException {
+                            writeBytes$(out, value == null ? null : value.getBytes(java.nio.charset.StandardCharsets.UTF_8));
+                        }
+
+                        private static void writeString$(java.nio.ByteBuffer buffer, String value) {
+                            writeBytes$(buffer, value == null ? null : value.getBytes(java.nio.charset.StandardCharsets.UTF_8));
+                        }
+
+                        private static String readString$(java.io.DataInput in) throws java.io.IOException {
+                            var value = readBytes$(in);
+                            return value == null ? null : new String(value, java.nio.charset.StandardCharsets.UTF_8);
+                        }
+
+                        private static String readString$(java.nio.ByteBuffer buffer) {
+                            var value = readBytes$(buffer);
+                            return value == null ? null : new String(value, java.nio.charset.StandardCharsets.UTF_8);
+                        }
+
+                    """);
+        }
+        return binaryCodecMethods.toString();
+    }
+
+    private String columnsClass(String visibility, Name className, List<VariableElement> fields) {
+        var columnsClass = new StringBuilder();
+        columnsClass.append("""
+                /**
+                 * Stores instances of %s as parallel arrays, one per field.
+                 */
+                %sfinal class %sColumns {
+                    private int size$;
+                    private int capacity$;
+                """.formatted(className, visibility, className));
+        for (var field : fields) {
+            columnsClass.append("    private %s[] %s;\n".formatted(field.asType(), field.getSimpleName()));
+        }
+
+        columnsClass.append("""
+
+                    /**
+                     * Creates an empty set of columns.
+                     */
+                    public %sColumns() {
+                        this(16);
+                    }
+
+                    /**
+                     * Creates an empty set of columns with room for the given number of rows.
+                     */
+                    public %sColumns(int initialCapacity) {
+                        this.capacity$ = initialCapacity;
+                """.formatted(className, className));
+        for (var field : fields) {
+            columnsClass.append("        this.%s = new %s[initialCapacity];\n".formatted(
+                    field.getSimpleName(), field.asType()
+            ));
+        }
+        columnsClass.append("""
+                    }
+
+                    /**
+                     * @return The number of rows stored.
+                     */
+                    public int size() {
+                        return this.size$;
+                    }
+
+                    private void ensureCapacity(int capacity) {
+                        if (capacity > this.capacity$) {
+                            int newCapacity = Math.max(capacity, this.capacity$ + (this.capacity$ >> 1) + 1);
+                """);
+        for (var field : fields) {
+            columnsClass.append("            this.%s = java.util.Arrays.copyOf(this.%s, newCapacity);\n".formatted(
+                    field.getSimpleName(), field.getSimpleName()
+            ));
+        }
+        columnsClass.append("""
+                            this.capacity$ = newCapacity;
+                        }
+                    }
+
+                    /**
+                     * Appends the current values of the given bean as a new row.
+                     *
+                     * @return The index of the new row.
+                     */
+                    public int add(%s bean) {
+                        ensureCapacity(this.size$ + 1);
+                """.formatted(className));
+        for (var field : fields) {
+            columnsClass.append("        this.%s[this.size$] = bean.%s();\n".formatted(
+                    field.getSimpleName(), getterName(field)
+            ));
+        }
+        columnsClass.append("""
+                        return this.size$++;
+                    }
+
+                    /**
+                     * Appends the current values of every given bean.
+                     */
+                    public void addAll(java.util.Collection<? extends %s> beans) {
+                        ensureCapacity(this.size$ + beans.size());
+                        for (var bean : beans) {
+                            add(bean);
+                        }
+                    }
+
+                    /**
+                     * Replaces the row at the given index with the current values of the given bean.
+                     */
+                    public void set(int index, %s bean) {
+                        java.util.Objects.checkIndex(index, this.size$);
+                """.formatted(className, className));
+        for (var field : fields) {
+            columnsClass.append("        this.%s[index] = bean.%s();\n".formatted(
+                    field.getSimpleName(), getterName(field)
+            ));
+        }
+        columnsClass.append("""
+                    }
+
+                    /**
+                     * Copies the row at the given index into the given bean.
+                     */
+                    public void copyTo(int index, %s bean) {
+                        java.util.Objects.checkIndex(index, this.size$);
+                """.formatted(className));
+        for (var field : fields) {
+            columnsClass.append("        bean.%s(this.%s[index]);\n".formatted(
+                    setterName(field), field.getSimpleName()
+            ));
+        }
+        columnsClass.append("    }\n\n");
+
+        for (var field : fields) {
+            columnsClass.append("""
+                        /**
+                         * Get the value for %s in the given row.
+                         */
+                        public %s %s(int index) {
+                            java.util.Objects.checkIndex(index, this.size$);
+                            return this.%s[index];
+                        }
+
+                        /**
+                         * Set the value for %s in the given row.
+                         */
+                        public void %s(int index, %s value) {
+                            java.util.Objects.checkIndex(index, this.size$);
+                            this.%s[index] = value;
+                        }
+
+                    """.formatted(
+                    field.getSimpleName(),
+                    field.asType(), getterName(field),
+                    field.getSimpleName(),
+                    field.getSimpleName(),
+                    setterName(field), field.asType(),
+                    field.getSimpleName()
+            ));
+        }
+
+        columnsClass.append("""
+                    /**
+                     * @return A cursor which can be moved between rows without allocating.
+                     */
+                    public Cursor cursor() {
+                        return new Cursor();
+                    }
+
+                    /**
+                     * A view of a single row, with the same getters and setters as %s.
+                     */
+                    public final class Cursor {
+                        private int index$;
+
+                        private Cursor() {}
+
+                        /**
+                         * Moves this cursor to the given row.
+                         */
+                        public Cursor at(int index) {
+                            java.util.Objects.checkIndex(index, %sColumns.this.size$);
+                            this.index$ = index;
+                            return this;
+                        }
+
+                        /**
+                         * @return The row this cursor points to.
+                         */
+                        public int index() {
+                            return this.index$;
+                        }
+
+                """.formatted(className, className));
+        for (var field : fields) {
+            columnsClass.append("""
+                            /**
+                             * Get the current value for %s.
+                             */
+                            public %s %s() {
+                                return %sColumns.this.%s[this.index$];
+                            }
+
+                            /**
+                             * Set the current value for %s.
+                             */
+                            public void %s(%s %s) {
+                                %sColumns.this.%s[this.index$] = %s;
+                            }
+
+                    """.formatted(
+                    field.getSimpleName(),
+                    field.asType(), getterName(field),
+                    className, field.getSimpleName(),
+                    field.getSimpleName(),
+                    setterName(field), field.asType(), field.getSimpleName(),
+                    className, field.getSimpleName(), field.getSimpleName()
+            ));
+        }
+        columnsClass.append("    }\n}");
+        return columnsClass.toString();
+    }
+
+    private String writeCounterMethods(List<VariableElement> fields) {
+        var writeCounterMethods = new StringBuilder();
+        writeCounterMethods.append("""
+                    private static final java.util.concurrent.atomic.LongAdder[] writeCounters$ =
+                            new java.util.concurrent.atomic.LongAdder[%d];
+
+                    static {
+                        for (int i = 0; i < writeCounters$.length; i++) {
+                            writeCounters$[i] = new java.util.concurrent.atomic.LongAdder();
+                        }
+                    }
+
+                    /**
+                     * Get how many times each field has been set through the generated setters
+                     * since the class was loaded, summed across every instance.
+                     *
+                     * @return A map from field name to write count, in declaration order.
+                     */
+                    public static java.util.Map<String, Long> writeCounts() {
+                        var writeCounts = new java.util.LinkedHashMap<String, Long>();
+                """.formatted(fields.size()));
+        for (int i = 0; i < fields.size(); i++) {
+            writeCounterMethods.append("        writeCounts.put(\"%s\", writeCounters$[%d].sum());\n".formatted(
+                    fields.get(i).getSimpleName(), i
+            ));
+        }
+        writeCounterMethods.append("""
+                        return writeCounts;
+                    }
+
+                """);
+        return writeCounterMethods.toString();
+    }
+
+    private String flightRecorderEventClasses(String packagePrefix, Name className, boolean allArgsStaticFactory) {
+        var eventClasses = new StringBuilder();
+        eventClasses.append("""
+                    @jdk.jfr.Name("%s%s.Set")
+                    @jdk.jfr.Label("%s Set")
+                    @jdk.jfr.Category("Magic Bean")
+                    @jdk.jfr.StackTrace(true)
+                    private static final class SetEvent$ extends jdk.jfr.Event {
+                        @jdk.jfr.Label("Field")
+                        String field;
+                    }
+
+                """.formatted(packagePrefix, className, className));
+        if (allArgsStaticFactory) {
+            eventClasses.append("""
+                        @jdk.jfr.Name("%s%s.Create")
+                        @jdk.jfr.Label("%s Create")
+                        @jdk.jfr.Category("Magic Bean")
+                        @jdk.jfr.StackTrace(true)
+                        private static final class CreateEvent$ extends jdk.jfr.Event {
+                        }
+
+                    """.formatted(packagePrefix, className, className));
+        }
+        return eventClasses.toString();
+    }
+
+    private String defaultValue(TypeMirror type) {
+        return switch (type.getKind()) {
+            case BOOLEAN -> "false";
+            case BYTE -> "(byte) 0";
+            case SHORT -> "(short) 0";
+            case CHAR -> "(char) 0";
+            case INT -> "0";
+            case LONG -> "0L";
+            case FLOAT -> "0.0f";
+            case DOUBLE -> "0.0";
+            default -> "null";
+        };
+    }
+
+    private String resetMethod(List<VariableElement> fields, VariableElement trackedKey) {
+        var resetMethod = new StringBuilder();
+        resetMethod.append("""
+                    /**
+                     * Set every field back to its default value.%s
+                     */
+                    public void reset() {
+                """.formatted(trackedKey == null ? "" : " An instance in an index is removed from it first."));
+        if (trackedKey != null) {
+            resetMethod.append("""
+                            if (this.index$ != null) {
+                                this.index$.remove(%s());
+                            }
+                    """.formatted(getterName(trackedKey)));
+        }
+        for (var field : fields) {
+            if (!field.getModifiers().contains(Modifier.STATIC)) {
+                resetMethod.append("        %s(%s);\n".formatted(setterName(field), defaultValue(field.asType())));
+                if (field.getAnnotation(MagicBean.Lazy.class) != null) {
+                    resetMethod.append("        this.%s = false;\n".formatted(lazyFlagName(field)));
+                }
+            }
+        }
+        resetMethod.append("""
+                    }
+
+                """);
+        return resetMethod.toString();
+    }
+
+    private String poolClass(String visibility, Name className) {
+        return """
+                /**
+                 * A pool of reusable %s instances. Every thread keeps its own bounded free list,
+                 * so acquiring and releasing instances never contends with other threads.
+                 */
+                %sfinal class %sPool {
+                    private final ThreadLocal<FreeList> freeLists;
+
+                    /**
+                     * Create a pool which keeps up to 64 free instances per thread.
+                     */
+                    public %sPool() {
+                        this(64);
+                    }
+
+                    /**
+                     * Create a pool which keeps up to the given number of free instances per thread.
+                     */
+                    public %sPool(int capacity) {
+                        if (capacity < 0) {
+                            throw new IllegalArgumentException("capacity must not be negative: " + capacity);
+                        }
+                        this.freeLists = ThreadLocal.withInitial(() -> new FreeList(capacity));
+                    }
+
+                    /**
+                     * Take a reset instance from the current thread's free list, or create a new one if it is empty.
+                     */
+                    public %s acquire() {
+                        var freeList = this.freeLists.get();
+                        if (freeList.size == 0) {
+                            return new %s();
+                        }
+                        var bean = freeList.items[--freeList.size];
+                        freeList.items[freeList.size] = null;
+                        return bean;
+                    }
+
+                    /**
+                     * Reset an instance and return it to the current thread's free list. The instance
+                     * is dropped if the free list is full. It must not be used after being released.
+                     */
+                    public void release(%s bean) {
+                        bean.reset();
+                        var freeList = this.freeLists.get();
+                        if (freeList.size < freeList.items.length) {
+                            freeList.items[freeList.size++] = bean;
+                        }
+                    }
+
+                    private static final class FreeList {
+                        final %s[] items;
+                        int size;
+
+                        FreeList(int capacity) {
+                            this.items = new %s[capacity];
+                        }
+                    }
+                }
+                """.formatted(
+                className,
+                visibility, className,
+                className,
+                className,
+                className,
+                className,
+                className,
+                className,
+                className
+        );
+    }
+
+    private String mapViewMethods(String selfExpr, Name className, List<VariableElement> fields) {
+        var typeUtils = this.processingEnv.getTypeUtils();
+        var mapViewMethods = new StringBuilder();
+        mapViewMethods.append("""
+                    /**
+                     * Get a live view of this bean as a map from field name to value. Reads and writes
+                     * go through the getters and setters. Fields can not be added or removed.
+                     */
+                    public java.util.Map<String, Object> asMap() {
+                        return new MapView$(%s);
+                    }
+
+                    private static final class MapView$ extends java.util.AbstractMap<String, Object> {
+                        private static final String[] KEYS = {%s};
+
+                        private final %s bean;
+
+                        MapView$(%s bean) {
+                            this.bean = bean;
+                        }
+
+                        private static int indexOf(Object key) {
+                            if (!(key instanceof String name)) {
+                                return -1;
+                            }
+                            return switch (name) {
+                """.formatted(
+                selfExpr,
+                fields.stream()
+                        .map(field -> "\"" + field.getSimpleName() + "\"")
+                        .collect(Collectors.joining(", ")),
+                className,
+                className
+        ));
+        for (int i = 0; i < fields.size(); i++) {
+            mapViewMethods.append("                case \"%s\" -> %d;\n".formatted(fields.get(i).getSimpleName(), i));
+        }
+        mapViewMethods.append("""
+                                default -> -1;
+                            };
+                        }
+
+                        private Object get(int index) {
+                            switch (index) {
+                """);
+        for (int i = 0; i < fields.size(); i++) {
+            mapViewMethods.append("                case %d: return this.bean.%s();\n".formatted(i, getterName(fields.get(i))));
+        }
+        mapViewMethods.append("""
+                                default: throw new IndexOutOfBoundsException(index);
+                            }
+                        }
+
+                        @SuppressWarnings("unchecked")
+                        private Object set(int index, Object value) {
+                            var previous = get(index);
+                            switch (index) {
+                """);
+        for (int i = 0; i < fields.size(); i++) {
+            var field = fields.get(i);
+            var type = field.asType();
+            var castType = type.getKind().isPrimitive()
+                    ? typeUtils.boxedClass((PrimitiveType) type).getQualifiedName().toString()
+                    : type.toString();
+            mapViewMethods.append("""
+                                    case %d:
+                                        this.bean.%s((%s) value);
+                                        return previous;
+                    """.formatted(i, setterName(field), castType));
+        }
+        mapViewMethods.append("""
+                                default: throw new IndexOutOfBoundsException(index);
+                            }
+                        }
+
+                        @Override
+                        public int size() {
+                            return KEYS.length;
+                        }
+
+                        @Override
+                        public boolean containsKey(Object key) {
+                            return indexOf(key) != -1;
+                        }
+
+                        @Override
+                        public Object get(Object key) {
+                            int index = indexOf(key);
+                            return index == -1 ? null : get(index);
+                        }
+
+                        /**
+                         * @throws IllegalArgumentException If there is no field with the given name.
+                         * @throws ClassCastException If the value does not have the type of the field.
+                         * @throws NullPointerException If the value is null and the field is primitive.
+                         */
+                        @Override
+                        public Object put(String key, Object value) {
+                            int index = indexOf(key);
+                            if (index == -1) {
+                                throw new IllegalArgumentException("No field named " + key);
+                            }
+                            return set(index, value);
+                        }
+
+                        @Override
+                        public java.util.Set<Entry<String, Object>> entrySet() {
+                            return new java.util.AbstractSet<>() {
+                                @Override
+                                public int size() {
+                                    return KEYS.length;
+                                }
+
+                                @Override
+                                public java.util.Iterator<Entry<String, Object>> iterator() {
+                                    return new java.util.Iterator<>() {
+                                        private int index;
+
+                                        @Override
+                                        public boolean hasNext() {
+                                            return this.index < KEYS.length;
+                                        }
+
+                                        @Override
+                                        public Entry<String, Object> next() {
+                                            if (this.index >= KEYS.length) {
+                                                throw new java.util.NoSuchElementException();
+                                            }
+                                            return new EntryView(this.index++);
+                                        }
+                                    };
+                                }
+                            };
+                        }
+
+                        private final class EntryView implements Entry<String, Object> {
+                            private final int index;
+
+                            EntryView(int index) {
+                                this.index = index;
+                            }
+
+                            @Override
+                            public String getKey() {
+                                return KEYS[this.index];
+                            }
+
+                            @Override
+                            public Object getValue() {
+                                return get(this.index);
+                            }
+
+                            @Override
+                            public Object setValue(Object value) {
+                                return set(this.index, value);
+                            }
+
+                            @Override
+                            public boolean equals(Object o) {
+                                return o instanceof Entry<?, ?> other
+                                        && getKey().equals(other.getKey())
+                                        && java.util.Objects.equals(getValue(), other.getValue());
+                            }
+
+                            @Override
+                            public int hashCode() {
+                                return getKey().hashCode() ^ java.util.Objects.hashCode(getValue());
+                            }
+
+                            @Override
+                            public String toString() {
+                                return getKey() + "=" + getValue();
+                            }
+                        }
+                    }
+
+                """);
+        return mapViewMethods.toString();
+    }
+
+    private String recordClass(String visibility, Name className, List<VariableElement> fields) {
+        var components = fields.stream()
+                .map(field -> "        %s %s".formatted(field.asType(), field.getSimpleName()))
+                .collect(Collectors.joining(",\n"));
+        return """
+                /**
+                 * An immutable snapshot of the fields of %s.
+                 */
+                %srecord %sRecord(
+                %s
+                ) {
+                }
+                """.formatted(className, visibility, className, components);
+    }
+
+    private String recordMethods(Name className, List<VariableElement> fields) {
+        var recordMethods = new StringBuilder();
+        recordMethods.append("""
+                    /**
+                     * Creates a snapshot of the current value of every field. Arrays and other
+                     * mutable objects are shared with the snapshot, not copied.
+                     */
+                    public %sRecord toRecord() {
+                        return new %sRecord(
+                """.formatted(className, className));
+        recordMethods.append(fields.stream()
+                .map(field -> "                %s()".formatted(getterName(field)))
+                .collect(Collectors.joining(",\n")));
+        recordMethods.append("""
+
+                        );
+                    }
+
+                    /**
+                     * Creates an instance with every field set from a snapshot.
+                     */
+                    public static %s fromRecord(%sRecord record) {
+                        var o$ = new %s();
+                """.formatted(className, className, className));
+        for (var field : fields) {
+            recordMethods.append("        o$.%s(record.%s());\n".formatted(setterName(field), field.getSimpleName()));
+        }
+        recordMethods.append("""
+                        return o$;
+                    }
+
+                """);
+        return recordMethods.toString();
+    }
+
+    private String indexClass(String visibility, Name className, VariableElement keyField) {
+        var keyType = keyField.asType().toString();
+        var tracked = keyField.getAnnotation(MagicBean.IndexKey.class).tracked();
+        var key = "bean.%s()".formatted(getterName(keyField));
+        var indexClass = new StringBuilder();
+        indexClass.append("""
+                /**
+                 * A hash map from %s to instances of %s, which stores keys without boxing using
+                 * open addressing.%s
+                 */
+                %sfinal class %sIndex {
+                    private %s[] keys;
+                    private %s[] values;
+                    private int size;
+
+                    /**
+                     * Create an empty index.
+                     */
+                    public %sIndex() {
+                        this(16);
+                    }
+
+                    /**
+                     * Create an empty index which can hold the given number of instances without resizing.
+                     */
+                    public %sIndex(int expectedSize) {
+                        if (expectedSize < 0) {
+                            throw new IllegalArgumentException("expectedSize must not be negative: " + expectedSize);
+                        }
+                        int capacity = Integer.highestOneBit(Math.max(2, expectedSize + expectedSize / 3) * 2 - 1);
+                        this.keys = new %s[capacity];
+                        this.values = new %s[capacity];
+                    }
+
+                    private int slot(%s key) {
+                        long h = key * 0x9e3779b97f4a7c15L;
+                        return (int) (h ^ (h >>> 32)) & (this.keys.length - 1);
+                    }
+
+                    private int find(%s key) {
+                        int mask = this.keys.length - 1;
+                        for (int i = slot(key); this.values[i] != null; i = (i + 1) & mask) {
+                            if (this.keys[i] == key) {
+                                return i;
+                            }
+                        }
+                        return -1;
+                    }
+
+                    /**
+                     * @return The number of instances in the index.
+                     */
+                    public int size() {
+                        return this.size;
+                    }
+
+                    /**
+                     * @return The instance with the given key, or null if there is none.
+                     */
+                    public %s get(%s key) {
+                        int slot = find(key);
+                        return slot == -1 ? null : this.values[slot];
+                    }
+
+                    /**
+                     * @return Whether there is an instance with the given key.
+                     */
+                    public boolean containsKey(%s key) {
+                        return find(key) != -1;
+                    }
+
+                    /**
+                     * Add an instance under its current key, replacing any instance with the same key.
+                     *
+                     * @return The replaced instance, or null if there was none.
+                     */
+                    public %s put(%s bean) {
+                """.formatted(
+                keyField.getSimpleName(), className,
+                tracked
+                        ? "\n * Changes to the key made through the generated setter move the instance\n * to its new key. An instance can only be in one index at a time."
+                        : "\n * Changing the key of an instance while it is in the index requires a call to rebuild.",
+                visibility, className,
+                keyType,
+                className,
+                className,
+                className,
+                keyType,
+                className,
+                keyType,
+                keyType,
+                className, keyType,
+                keyType,
+                className, className
+        ));
+        if (tracked) {
+            indexClass.append("""
+                            if (bean.index$ != null && bean.index$ != this) {
+                                throw new IllegalStateException("The instance is already in another index");
+                            }
+                            bean.index$ = this;
+                    """);
+        }
+        indexClass.append("""
+                        if ((this.size + 1) * 4 > this.keys.length * 3) {
+                            resize(this.keys.length * 2);
+                        }
+                        var key = %s;
+                        int mask = this.keys.length - 1;
+                        int i = slot(key);
+                        for (; this.values[i] != null; i = (i + 1) & mask) {
+                            if (this.keys[i] == key) {
+                                var previous = this.values[i];
+                                this.values[i] = bean;
+                """.formatted(key));
+        if (tracked) {
+            indexClass.append("""
+                                        if (previous != bean) {
+                                            previous.index$ = null;
+                                        }
+                    """);
+        }
+        indexClass.append("""
+                                return previous;
+                            }
+                        }
+                        this.keys[i] = key;
+                        this.values[i] = bean;
+                        this.size++;
+                        return null;
+                    }
+
+                    /**
+                     * Remove the instance with the given key.
+                     *
+                     * @return The removed instance, or null if there was none.
+                     */
+                    public %s remove(%s key) {
+                        int slot = find(key);
+                        if (slot == -1) {
+                            return null;
+                        }
+                        var removed = this.values[slot];
+                        removeAt(slot);
+                """.formatted(className, keyType));
+        if (tracked) {
+            indexClass.append("        removed.index$ = null;\n");
+        }
+        indexClass.append("""
+                        return removed;
+                    }
+
+                    private void removeAt(int slot) {
+                        int mask = this.keys.length - 1;
+                        int hole = slot;
+                        for (int i = (slot + 1) & mask; this.values[i] != null; i = (i + 1) & mask) {
+                            int home = slot(this.keys[i]);
+                            if (((i - home) & mask) >= ((i - hole) & mask)) {
+                                this.keys[hole] = this.keys[i];
+                                this.values[hole] = this.values[i];
+                                hole = i;
+                            }
+                        }
+                        this.keys[hole] = 0;
+                        this.values[hole] = null;
+                        this.size--;
+                    }
+
+                    private void resize(int capacity) {
+                        var values = this.values;
+                        this.keys = new %s[capacity];
+                        this.values = new %s[capacity];
+                        this.size = 0;
+                        for (var bean : values) {
+                            if (bean != null) {
+                                put(bean);
+                            }
+                        }
+                    }
+
+                    /**
+                     * Put every instance back under its current key. Needed after keys are changed
+                     * without going through the generated setter. If several instances now have the
+                     * same key, only one of them is kept.
+                     */
+                    public void rebuild() {
+                        resize(this.keys.length);
+                    }
+
+                    /**
+                     * Remove every instance.
+                     */
+                    public void clear() {
+                """.formatted(keyType, className));
+        if (tracked) {
+            indexClass.append("""
+                            for (var bean : this.values) {
+                                if (bean != null) {
+                                    bean.index$ = null;
+                                }
+                            }
+                    """);
+        }
+        indexClass.append("""
+                        java.util.Arrays.fill(this.keys, 0);
+                        java.util.Arrays.fill(this.values, null);
+                        this.size = 0;
+                    }
+
+                    /**
+                     * Call an action with every instance, in no particular order.
+                     */
+                    public void forEach(java.util.function.Consumer<? super %s> action) {
+                        for (var bean : this.values) {
+                            if (bean != null) {
+                                action.accept(bean);
+                            }
+                        }
+                    }
+                """.formatted(className));
+        if (tracked) {
+            indexClass.append("""
+
+                        void rekey$(%s previousKey, %s bean) {
+                            int slot = find(previousKey);
+                            if (slot != -1 && this.values[slot] == bean) {
+                                removeAt(slot);
+                            }
+                            put(bean);
+                        }
+                    """.formatted(keyType, className));
+        }
+        indexClass.append("}\n");
+        return indexClass.toString();
+    }
+
+    private String propertiesClass(String visibility, Name className, List<VariableElement> fields) {
+        var typeUtils = this.processingEnv.getTypeUtils();
+        var propertiesClass = new StringBuilder();
+        propertiesClass.append("""
+                /**
+                 * Index based access to the properties of %s.
+                 */
+                %sfinal class %sProperties {
+                    private %sProperties() {}
+
+                    /**
+                     * The number of properties.
+                     */
+                    public static final int COUNT = %d;
+
+                    /**
+                     * @return The name of the property at the given index.
+                     */
+                    public static String name(int index) {
+                        switch (index) {
+                """.formatted(className, visibility, className, className, fields.size()));
+        for (int i = 0; i < fields.size(); i++) {
+            propertiesClass.append("            case %d: return \"%s\";\n".formatted(i, fields.get(i).getSimpleName()));
+        }
+        propertiesClass.append("""
+                            default: throw new IndexOutOfBoundsException(index);
+                        }
+                    }
+
+                    /**
+                     * @return The type of the property at the given index.
+                     */
+                    public static Class<?> type(int index) {
+                        switch (index) {
+                """);
+        for (int i = 0; i < fields.size(); i++) {
+            propertiesClass.append("            case %d: return %s.class;\n".formatted(
+                    i, typeUtils.erasure(fields.get(i).asType())
+            ));
+        }
+        propertiesClass.append("""
+                            default: throw new IndexOutOfBoundsException(index);
+                        }
+                    }
+
+                    /**
+                     * @return The index of the property with the given name, or -1 if there is no such property.
+                     */
+                    public static int indexOf(String name) {
+                        switch (name) {
+                """);
+        for (int i = 0; i < fields.size(); i++) {
+            propertiesClass.append("            case \"%s\": return %d;\n".formatted(fields.get(i).getSimpleName(), i));
+        }
+        propertiesClass.append("""
+                            default: return -1;
+                        }
+                    }
+
+                    /**
+                     * @return The current value of the property at the given index.
+                     */
+                    public static Object get(%s bean, int index) {
+                        switch (index) {
+                """.formatted(className));
+        for (int i = 0; i < fields.size(); i++) {
+            propertiesClass.append("            case %d: return bean.%s();\n".formatted(i, getterName(fields.get(i))));
+        }
+        propertiesClass.append("""
+                            default: throw new IndexOutOfBoundsException(index);
+                        }
+                    }
+
+                    /**
+                     * Set the value of the property at the given index.
+                     */
+                    @SuppressWarnings("unchecked")
+                    public static void set(%s bean, int index, Object value) {
+                        switch (index) {
+                """.formatted(className));
+        for (int i = 0; i < fields.size(); i++) {
+            var field = fields.get(i);
+            propertiesClass.append("            case %d: bean.%s((%s) value); break;\n".formatted(
+                    i, setterName(field), field.asType()
+            ));
+        }
+        propertiesClass.append("""
+                            default: throw new IndexOutOfBoundsException(index);
+                        }
+                    }
+                }""");
+        return propertiesClass.toString();
+    }
+
+    private String createToStringMethodBody(String selfExpr, Name className, List<VariableElement> fields) {
+        if (fields.isEmpty()) {
+            return "return \"%s[]\"; "
+                    .formatted(className);
+        }
+        else {
+            return "return \"%s[\" + %s + \"]\";"
+                    .formatted(
+                    className,
+                    fields.stream()
+                            .map(field ->
+                                    "\"%s=\" + %s".formatted(
+                                            field.getSimpleName(),
+                                            selfExpr + "." + field.getSimpleName()
+                                    )
+                            )
+                            .collect(Collectors.joining(" +\n                     \", \" + ")));
+        }
+    }
+
+    /**
+     * Reports every field whose type an option can not handle, with the given message
+     * followed by the type.
+     *
+     * @return Whether every field is supported.
+     */
+    private boolean allSupported(List<VariableElement> fields, Predicate<TypeMirror> supported, String message) {
+        var messager = this.processingEnv.getMessager();
+        var allSupported = true;
+        for (var field : fields) {
+            if (!supported.test(field.asType())) {
+                messager.printMessage(Diagnostic.Kind.ERROR, message + field.asType(), field);
+                allSupported = false;
+            }
+        }
+        return allSupported;
+    }
+
+    @Override
+    public boolean process(
+            Set<? extends TypeElement> annotations,
+            RoundEnvironment roundEnv
+    ) {
+        var messager = this.processingEnv.getMessager();
+
+        Set<? extends Element> elements = roundEnv.getElementsAnnotatedWith(MagicBean.class);
+        for (var element : elements) {
+            if (!(element instanceof TypeElement typeElement)) {
+                messager.printMessage(
+                        Diagnostic.Kind.ERROR,
+                        "Magic beans should only be placeable on classes.",
+                        element
+                );
+            } else {
+                processBean(typeElement);
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Validates a single magic bean and generates code for it. Any problem is reported
+     * through the messager and only stops generation for that bean.
+     */
+    private void processBean(TypeElement typeElement) {
+        var messager = this.processingEnv.getMessager();
+        Element element = typeElement;
+
+        var members = typeElement.getEnclosedElements();
+        var fields = ElementFilter.fieldsIn(members);
+        var valid = true;
+        for (var field : fields) {
+            var modifiers = field.getModifiers();
+            if (!modifiers.contains(Modifier.STATIC)) {
+                if (modifiers.contains(Modifier.PRIVATE)) {
+                    messager.printMessage(
+                            Diagnostic.Kind.ERROR,
+                            "Magic beans are not allowed to have any private non-static fields",
+                            field
+                    );
+                    valid = false;
+                }
+
+                if (modifiers.contains(Modifier.FINAL)) {
+                    messager.printMessage(
+                            Diagnostic.Kind.ERROR,
+                            "Magic beans are not allowed to have any final non-static fields",
+                            field
+                    );
+                    valid = false;
+                }
+            }
+            var fieldType = field.asType().getKind();
+            if (!(fieldType.isPrimitive() || fieldType == TypeKind.ARRAY || fieldType == TypeKind.DECLARED)) {
+                messager.printMessage(
+                        Diagnostic.Kind.ERROR,
+                        "Unsupported type for a field: " + fieldType,
+                        field
+                );
+                valid = false;
+            }
+        }
+
+        if (!valid) {
+            return;
+        }
+
+        var instanceFields = fields.stream()
+                .filter(field -> !field.getModifiers().contains(Modifier.STATIC))
+                .toList();
+
+        var constructors = ElementFilter.constructorsIn(members);
+        var hasValidConstructor = constructors
+                .stream()
+                .anyMatch(constructor ->
+                        constructor.getParameters().size() == 0 &&
+                                !constructor.getModifiers().contains(Modifier.PRIVATE)
+                );
+
+        var annotation = typeElement.getAnnotation(MagicBean.class);
+        if (annotation.allArgsStaticFactory() && !hasValidConstructor) {
+            messager.printMessage(
+                    Diagnostic.Kind.ERROR,
+                    "Magic beans need to have a non-private zero arg constructor in order for a factory method to be generated.",
+                    element
+            );
+            return;
+        }
+
+        if (annotation.binaryCodec()) {
+            if (!allSupported(
+                    instanceFields,
+                    this::supportedByBinaryCodec,
+                    "Unsupported type for the binary codec: "
+            )) {
+                return;
+            }
+        }
+
+        if (annotation.columns()) {
+            if (!allSupported(
+                    instanceFields,
+                    type -> type.getKind().isPrimitive() || isString(type),
+                    "Only primitive and String fields can be stored in columns: "
+            )) {
+                return;
+            }
+        }
+
+        if (annotation.json()) {
+            if (!allSupported(
+                    instanceFields,
+                    this::supportedByJson,
+                    "Unsupported type for JSON: "
+            )) {
+                return;
+            }
+        }
+
+        if (annotation.hash64()) {
+            if (!allSupported(
+                    instanceFields,
+                    this::supportedByHash64,
+                    "Unsupported type for hash64, it must have a public long hash64() method: "
+            )) {
+                return;
+            }
+        }
+
+        if (annotation.fixedLayout()) {
+            if (!allSupported(
+                    instanceFields,
+                    type -> type.getKind().isPrimitive(),
+                    "Fixed layouts only support primitive fields: "
+            )) {
+                return;
+            }
+            if (instanceFields.isEmpty()) {
+                messager.printMessage(
+                        Diagnostic.Kind.ERROR,
+                        "Fixed layouts need at least one instance field.",
+                        element
+                );
+                return;
+            }
+        }
+
+        if (annotation.jdbc()) {
+            if (!allSupported(
+                    instanceFields,
+                    this::supportedByJdbc,
+                    "Unsupported type for JDBC: "
+            )) {
+                return;
+            }
+            if (!hasValidConstructor) {
+                messager.printMessage(
+                        Diagnostic.Kind.ERROR,
+                        "Magic beans need to have a non-private zero arg constructor in order for a row mapper to be generated.",
+                        element
+                );
+                return;
+            }
+        }
+
+        if (annotation.externalizable()) {
+            if (!annotation.binaryCodec()) {
+                messager.printMessage(
+                        Diagnostic.Kind.ERROR,
+                        "In order to be externalizable, a magic bean must also generate a binary codec.",
+                        element
+                );
+                return;
+            }
+
+            var hasPublicConstructor = constructors
+                    .stream()
+                    .anyMatch(constructor ->
+                            constructor.getParameters().size() == 0 &&
+                                    constructor.getModifiers().contains(Modifier.PUBLIC)
+                    );
+            if (!typeElement.getModifiers().contains(Modifier.PUBLIC) || !hasPublicConstructor) {
+                messager.printMessage(
+                        Diagnostic.Kind.ERROR,
+                        "In order to be externalizable, a magic bean must be public and have a public zero arg constructor.",
+                        element
+                );
+                return;
+            }
+        }
+
+        if (annotation.copyMethods() && !hasValidConstructor) {
+            messager.printMessage(
+                    Diagnostic.Kind.ERROR,
+                    "Magic beans need to have a non-private zero arg constructor in order for copy methods to be generated.",
+                    element
+            );
+            return;
+        }
+
+        if (annotation.pool() && !annotation.reset()) {
+            messager.printMessage(
+                    Diagnostic.Kind.ERROR,
+                    "In order to generate a pool, a magic bean must also generate reset.",
+                    element
+            );
+            return;
+        }
+
+        if (annotation.pool() && !hasValidConstructor) {
+            messager.printMessage(
+                    Diagnostic.Kind.ERROR,
+                    "Magic beans need to have a non-private zero arg constructor in order for a pool to be generated.",
+                    element
+            );
+            return;
+        }
+
+        if (annotation.recordSnapshot() && !hasValidConstructor) {
+            messager.printMessage(
+                    Diagnostic.Kind.ERROR,
+                    "Magic beans need to have a non-private zero arg constructor in order for record conversions to be generated.",
+                    element
+            );
+            return;
+        }
+
+        if (annotation.deepCopy() && !annotation.copyMethods()) {
+            messager.printMessage(
+                    Diagnostic.Kind.ERROR,
+                    "In order to make deep copies, a magic bean must also generate copy methods.",
+                    element
+            );
+            return;
+        }
+
+        var compareBy = new ArrayList<VariableElement>();
+        for (var fieldName : annotation.compareBy()) {
+            var field = fields.stream()
+                    .filter(f -> f.getSimpleName().contentEquals(fieldName))
+                    .findFirst();
+            if (field.isEmpty()) {
+                messager.printMessage(
+                        Diagnostic.Kind.ERROR,
+                        "No field named %s to compare by.".formatted(fieldName),
+                        element
+                );
+                return;
+            }
+            if (!isComparable(field.get().asType())) {
+                messager.printMessage(
+                        Diagnostic.Kind.ERROR,
+                        "Fields to compare by must be primitive or Comparable.",
+                        field.get()
+                );
+                return;
+            }
+            compareBy.add(field.get());
+        }
+
+        var className = typeElement.getSimpleName();
+
+        var enclosingElement = typeElement.getEnclosingElement();
+        if (!(enclosingElement instanceof PackageElement packageElement)) {
+            messager.printMessage(
+                    Diagnostic.Kind.ERROR,
+                    "Magic beans must be top level classes, not nested within another class",
+                    element
+            );
+            return;
+        }
+
+        String packageName;
+        if (packageElement.isUnnamed()) {
+            packageName = null;
+        }
+        else {
+            packageName = packageElement.toString();
+        }
+
+        String selfMethod = """
+                    private %s self() {
+                        return (switch (this) { case %s __ -> __; });
+                    }
+                
+                """.formatted(className, className);
+
+        String selfExpr = "self()";
+
+        boolean requiresFinalClass = annotation.equalsAndHashCode();
+
+        if (annotation.cacheHashCode() && !annotation.equalsAndHashCode()) {
+            messager.printMessage(
+                    Diagnostic.Kind.ERROR,
+                    "In order to cache the hash code, a magic bean must also generate equals and hash code.",
+                    element
+            );
+            return;
+        }
+
+        var validConstraints = true;
+        var hasConstraints = false;
+        for (var field : fields) {
+            validConstraints &= validateConstraints(field);
+            hasConstraints |= !constraintChecks(field, field.getSimpleName().toString()).isEmpty();
+        }
+
+        if (!validConstraints) {
+            return;
+        }
+
+        if (annotation.reset() && annotation.validateInSetters()) {
+            for (var field : fields) {
+                var min = field.getAnnotation(MagicBean.Min.class);
+                var max = field.getAnnotation(MagicBean.Max.class);
+                var primitive = field.asType().getKind().isPrimitive();
+                if (field.getAnnotation(MagicBean.NotNull.class) != null
+                        || (primitive && min != null && min.value() > 0)
+                        || (primitive && max != null && max.value() < 0)) {
+                    messager.printMessage(
+                            Diagnostic.Kind.ERROR,
+                            "The default value of this field violates its constraints, so reset would always fail when validating in setters.",
+                            field
+                    );
+                    validConstraints = false;
+                }
+            }
+            if (!validConstraints) {
+                return;
+            }
+        }
+
+        VariableElement indexKey = null;
+        for (var field : fields) {
+            if (field.getAnnotation(MagicBean.IndexKey.class) == null) {
+                continue;
+            }
+            var kind = field.asType().getKind();
+            String problem = null;
+            if (indexKey != null) {
+                problem = "Only one field can be an index key.";
+            }
+            else if (field.getModifiers().contains(Modifier.STATIC)) {
+                problem = "Only instance fields can be index keys.";
+            }
+            else if (kind != TypeKind.INT && kind != TypeKind.LONG) {
+                problem = "Index keys must be ints or longs.";
+            }
+            else if (field.getAnnotation(MagicBean.Lazy.class) != null) {
+                problem = "Index keys can not be lazy.";
+            }
+            else if (field.getAnnotation(MagicBean.IndexKey.class).tracked()
+                    && accessMode(annotation, field) != MagicBean.AccessMode.PLAIN) {
+                problem = "Tracked index keys must use the PLAIN access mode.";
+            }
+            if (problem != null) {
+                messager.printMessage(Diagnostic.Kind.ERROR, problem, field);
+                return;
+            }
+            indexKey = field;
+        }
+
+        var validLazyFields = true;
+        for (var field : fields) {
+            var lazy = field.getAnnotation(MagicBean.Lazy.class);
+            if (lazy == null) {
+                continue;
+            }
+            if (field.getModifiers().contains(Modifier.STATIC)) {
+                messager.printMessage(
+                        Diagnostic.Kind.ERROR,
+                        "Only instance fields can be lazy.",
+                        field
+                );
+                validLazyFields = false;
+                continue;
+            }
+            if (accessMode(annotation, field) != MagicBean.AccessMode.PLAIN) {
+                messager.printMessage(
+                        Diagnostic.Kind.ERROR,
+                        "Lazy fields must use the PLAIN access mode.",
+                        field
+                );
+                validLazyFields = false;
+                continue;
+            }
+            var typeUtils = this.processingEnv.getTypeUtils();
+            var computeMethod = ElementFilter.methodsIn(this.processingEnv.getElementUtils().getAllMembers(typeElement))
+                    .stream()
+                    .filter(method -> method.getSimpleName().contentEquals(lazy.value())
+                            && method.getParameters().isEmpty())
+                    .findFirst();
+            if (computeMethod.isEmpty()
+                    || computeMethod.get().getModifiers().contains(Modifier.STATIC)
+                    || computeMethod.get().getModifiers().contains(Modifier.PRIVATE)
+                    || !typeUtils.isAssignable(computeMethod.get().getReturnType(), field.asType())) {
+                messager.printMessage(
+                        Diagnostic.Kind.ERROR,
+                        "Lazy fields need a non-private, non-static, zero arg method named %s which returns %s."
+                                .formatted(lazy.value(), field.asType()),
+                        field
+                );
+                validLazyFields = false;
+            }
+        }
+
+        if (!validLazyFields) {
+            return;
+        }
+
+        var concurrent = false;
+        for (var field : fields) {
+            if (field.getModifiers().contains(Modifier.STATIC)
+                    && field.getAnnotation(MagicBean.Access.class) != null) {
+                messager.printMessage(
+                        Diagnostic.Kind.ERROR,
+                        "Access modes can only be set on instance fields.",
+                        field
+                );
+                return;
+            }
+            concurrent |= accessMode(annotation, field) != MagicBean.AccessMode.PLAIN;
+        }
+
+        if (concurrent && (annotation.cacheHashCode() || annotation.dirtyTracking())) {
+            messager.printMessage(
+                    Diagnostic.Kind.ERROR,
+                    "Access modes other than PLAIN can not be combined with cacheHashCode or dirtyTracking.",
+                    element
+            );
+            return;
+        }
+
+        if (annotation.dirtyTracking() && instanceFields.size() > Long.SIZE) {
+            messager.printMessage(
+                    Diagnostic.Kind.ERROR,
+                    "Dirty tracking supports at most %d fields.".formatted(Long.SIZE),
+                    element
+            );
+            return;
+        }
+
+        if (requiresFinalClass && !typeElement.getModifiers().contains(Modifier.FINAL)) {
+            messager.printMessage(
+                    Diagnostic.Kind.ERROR,
+                    "In order to use the automatic equals and hash code, a magic bean must be final.",
+                    element
+            );
+            return;
+        }
+
+        BiFunction<VariableElement, String, String> methodDefinition = (field, setterHooks) -> {
+            var fieldType = field.asType().toString();
+            var fieldName = field.getSimpleName().toString();
+            var pascalName = pascal(fieldName);
+            var setterChecks = new StringBuilder();
+            var tracksIndex = field.getAnnotation(MagicBean.IndexKey.class) != null
+                    && field.getAnnotation(MagicBean.IndexKey.class).tracked();
+            if (annotation.validateInSetters()) {
+                for (var check : constraintChecks(field, fieldName)) {
+                    setterChecks.append("""
+                            if (%s) {
+                                        throw new IllegalArgumentException("%s");
+                                    }
+                                    \
+                            """.formatted(check.getKey(), check.getValue()));
+                }
+            }
+            if (tracksIndex) {
+                setterChecks.append("var previousKey$ = %s.%s;\n        ".formatted(selfExpr, fieldName));
+                setterHooks = setterHooks + """
+
+                                if (this.index$ != null && previousKey$ != %s) {
+                                    this.index$.rekey$(previousKey$, %s);
+                                }\
+                        """.formatted(fieldName, selfExpr);
+            }
+            if (field.getAnnotation(MagicBean.Lazy.class) != null) {
+                return lazyAccessors(selfExpr, field, setterChecks.toString(), setterHooks, annotation.cacheHashCode());
+            }
+            var mode = accessMode(annotation, field);
+            String read;
+            String write;
+            if (mode == MagicBean.AccessMode.PLAIN) {
+                read = "%s.%s".formatted(selfExpr, fieldName);
+                write = "%s.%s = %s;".formatted(selfExpr, fieldName, fieldName);
+            }
+            else {
+                var handle = varHandleName(field);
+                var getMethod = switch (mode) {
+                    case OPAQUE -> "getOpaque";
+                    case ACQUIRE_RELEASE -> "getAcquire";
+                    default -> "getVolatile";
+                };
+                var setMethod = switch (mode) {
+                    case OPAQUE -> "setOpaque";
+                    case ACQUIRE_RELEASE -> "setRelease";
+                    default -> "setVolatile";
+                };
+                read = "(%s) %s.%s(%s)".formatted(fieldType, handle, getMethod, selfExpr);
+                write = "%s.%s(%s, %s);".formatted(handle, setMethod, selfExpr, fieldName);
+            }
+            var accessors = """
+                        /**
+                         * Get the current value for %s.
+                         */
+                        public %s %s() {
+                            return %s;
+                        }
+                        
+                        /**
+                         * Set the current value for %s.
+                         */
+                        public void set%s(%s %s) {
+                            %s%s%s
+                        }
+                        
+                    """.formatted(
+                    fieldName,
+                    fieldType, getterName(fieldType, fieldName),
+                    read,
+                    fieldName,
+                     pascalName, fieldType, fieldName,
+                    setterChecks, write, setterHooks
+            );
+            return mode == MagicBean.AccessMode.PLAIN ? accessors : accessors + atomicMethods(selfExpr, field, setterHooks);
+        };
+
+
+        var packageDecl = packageName == null ? "" : "package " + packageName + ";\n\n";
+
+        String extendClass;
+        try {
+            extendClass = annotation.extend().toString();
+        } catch (MirroredTypeException e) {
+            extendClass = e.getTypeMirror().toString();
+        }
+
+        var superClass = typeElement.getSuperclass();
+        var generatedClassName = superClass.toString();
+
+        if ("java.lang.Object".equals(generatedClassName)) {
+            messager.printMessage(
+                    Diagnostic.Kind.ERROR,
+                    "A magic bean must extend a class.",
+                    element
+            );
+            return;
+        }
+
+        if (generatedClassName.contains("<")) {
+            messager.printMessage(
+                    Diagnostic.Kind.ERROR,
+                    "The class a magic bean extends should not be generic. %s"
+                            .formatted(generatedClassName),
+                    element
+            );
+            return;
+        }
+
+        if (generatedClassName.contains(".")) {
+            var split = generatedClassName.split("\\.");
+            generatedClassName = split[split.length - 1];
+        }
+
+        var interfaces = new ArrayList<String>();
+        if (annotation.externalizable()) {
+            interfaces.add("java.io.Externalizable");
+        }
+        if (!compareBy.isEmpty()) {
+            interfaces.add("java.lang.Comparable<%s>".formatted(className));
+        }
+
+        var classDeclStart = "sealed abstract class %s extends %s%s permits %s {\n\n".formatted(
+                generatedClassName,
+                extendClass,
+                interfaces.isEmpty() ? "" : " implements " + String.join(", ", interfaces),
+                className
+        );
+
+        var classDeclEnd = "}";
+
+        if (annotation.footprintReport() || annotation.footprintWarnings()) {
+            var layoutFields = new ArrayList<LayoutField>();
+            for (var field : instanceFields) {
+                layoutFields.add(new LayoutField(
+                        field.asType() + " " + field.getSimpleName(),
+                        fieldSize(field.asType().getKind())
+                ));
+                if (field.getAnnotation(MagicBean.Lazy.class) != null) {
+                    layoutFields.add(new LayoutField("boolean " + lazyFlagName(field), 1));
+                }
+            }
+            if (annotation.cacheHashCode()) {
+                layoutFields.add(new LayoutField("int hashCode$", 4));
+                layoutFields.add(new LayoutField("boolean hashCodeIsZero$", 1));
+            }
+            if (annotation.dirtyTracking()) {
+                layoutFields.add(new LayoutField("long dirtyFields$", 8));
+            }
+            if (indexKey != null && indexKey.getAnnotation(MagicBean.IndexKey.class).tracked()) {
+                layoutFields.add(new LayoutField(className + "Index index$", fieldSize(TypeKind.DECLARED)));
+            }
+            var report = footprintReport(className, layoutFields);
+
+            if (annotation.footprintReport()) {
+                messager.printMessage(Diagnostic.Kind.NOTE, report.getKey(), element);
+            }
+
+            if (annotation.footprintWarnings()) {
+                for (var field : instanceFields) {
+                    var unboxed = unboxedKind(field.asType());
+                    if (unboxed != null) {
+                        messager.printMessage(
+                                Diagnostic.Kind.WARNING,
+                                "%s is boxed, which adds a pointer and usually a separate object per value. Use %s unless null is needed."
+                                        .formatted(field.getSimpleName(), unboxed.toString().toLowerCase(Locale.ROOT)),
+                                field
+                        );
+                    }
+                }
+                if (report.getValue() > CACHE_LINE_SIZE) {
+                    messager.printMessage(
+                            Diagnostic.Kind.WARNING,
+                            "The estimated size of %s is %d bytes, which is more than a %d byte cache line. Narrower field types, like int instead of long or float instead of double, would reduce it."
+                                    .formatted(className, report.getValue(), CACHE_LINE_SIZE),
+                            element
+                    );
+                }
+            }
+        }
+
+        try (var writer = openSourceFile(packageName, generatedClassName, element)) {
+            writer.append(packageDecl);
+            writer.append(classDeclStart);
+            if (annotation.cacheHashCode()) {
+                writer.append("""
+                            private transient int hashCode$;
+                            private transient boolean hashCodeIsZero$;
+
+                        """);
+            }
+            if (annotation.dirtyTracking()) {
+                writer.append("""
+                            private transient long dirtyFields$;
+
+                        """);
+            }
+            var handledFields = fields.stream()
+                    .filter(field -> accessMode(annotation, field) != MagicBean.AccessMode.PLAIN)
+                    .toList();
+            if (!handledFields.isEmpty()) {
+                writer.append(varHandleFields(className, handledFields));
+            }
+            if (annotation.writeCounters()) {
+                writer.append(writeCounterMethods(fields));
+            }
+            if (annotation.flightRecorderEvents()) {
+                writer.append(flightRecorderEventClasses(
+                        packageName == null ? "" : packageName + ".",
+                        className,
+                        annotation.allArgsStaticFactory()
+                ));
+            }
+            if (indexKey != null && indexKey.getAnnotation(MagicBean.IndexKey.class).tracked()) {
+                writer.append("""
+                            transient %sIndex index$;
+
+                        """.formatted(className));
+            }
+            writer.append(selfMethod);
+
+            if (annotation.comparators()) {
+                writer.append(comparatorConstants(className, instanceFields));
+            }
+
+            if (annotation.lenses()) {
+                writer.append(lensConstants(className, instanceFields));
+            }
+
+            if (annotation.allArgsStaticFactory()) {
+                writer.append(staticFactoryMethod(className, fields, annotation.flightRecorderEvents()));
+            }
+
+            for (int i = 0; i < fields.size(); i++) {
+                var setterHooks = new StringBuilder();
+                if (annotation.cacheHashCode()) {
+                    setterHooks.append("\n        this.hashCode$ = 0;");
+                    setterHooks.append("\n        this.hashCodeIsZero$ = false;");
+                }
+                if (annotation.dirtyTracking() && instanceFields.contains(fields.get(i))) {
+                    setterHooks.append("\n        this.dirtyFields$ |= 1L << %d;".formatted(
+                            instanceFields.indexOf(fields.get(i))
+                    ));
+                }
+                if (annotation.writeCounters()) {
+                    setterHooks.append("\n        writeCounters$[%d].increment();".formatted(i));
+                }
+                if (annotation.flightRecorderEvents()) {
+                    setterHooks.append("\n        var event$ = new SetEvent$();");
+                    setterHooks.append("\n        if (event$.shouldCommit()) {");
+                    setterHooks.append("\n            event$.field = \"%s\";".formatted(fields.get(i).getSimpleName()));
+                    setterHooks.append("\n            event$.commit();");
+                    setterHooks.append("\n        }");
+                }
+                writer.append(methodDefinition.apply(fields.get(i), setterHooks.toString()));
+            }
+
+            if (annotation.equalsAndHashCode()) {
+                writer.append(equalsAndHashCodeMethods(selfExpr, className, fields, annotation.cacheHashCode()));
+            }
+
+            if (annotation.toString_()) {
+                writer.append(toStringMethod(selfExpr, className, fields, annotation.appendTo()));
+            }
+
+            if (annotation.appendTo()) {
+                writer.append(appendToMethods(selfExpr, className, fields));
+            }
+
+            if (!compareBy.isEmpty()) {
+                writer.append(compareToMethod(selfExpr, className, compareBy));
+            }
+
+            boolean comparesReferences = (annotation.comparators() ? instanceFields : compareBy)
+                    .stream()
+                    .anyMatch(field -> !field.asType().getKind().isPrimitive() && isComparable(field.asType()));
+            if (comparesReferences) {
+                writer.append(COMPARE_NULLS_FIRST_METHOD);
+            }
+
+            if (annotation.copyMethods()) {
+                writer.append(copyMethods(className, instanceFields, annotation.deepCopy()));
+            }
+
+            if (annotation.reset()) {
+                writer.append(resetMethod(
+                        fields,
+                        indexKey != null && indexKey.getAnnotation(MagicBean.IndexKey.class).tracked() ? indexKey : null
+                ));
+            }
+
+            if (hasConstraints) {
+                writer.append(validateMethod(selfExpr, instanceFields));
+            }
+
+            if (annotation.hash64()) {
+                writer.append(hash64Method(selfExpr, instanceFields));
+            }
+
+            if (annotation.recordSnapshot()) {
+                writer.append(recordMethods(className, instanceFields));
+            }
+
+            if (annotation.mapView()) {
+                writer.append(mapViewMethods(selfExpr, className, instanceFields));
+            }
+
+            if (annotation.jdbc()) {
+                writer.append(jdbcMethods(className, instanceFields));
+            }
+
+            if (annotation.fixedLayout()) {
+                writer.append(fixedLayoutMethods(instanceFields));
+            }
+
+            if (annotation.dirtyTracking()) {
+                writer.append(dirtyTrackingMethods(selfExpr, className, instanceFields));
+            }
+
+            if (annotation.binaryCodec()) {
+                writer.append(binaryCodecMethods(selfExpr, instanceFields, annotation.externalizable()));
+            }
+
+            if (annotation.json()) {
+                writer.append(jsonMethods(selfExpr, instanceFields));
+            }
+
+            writer.append(classDeclEnd);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+
+        var visibility = typeElement.getModifiers().contains(Modifier.PUBLIC) ? "public " : "";
+
+        if (annotation.recordSnapshot()) {
+            writeSourceFile(
+                    packageName,
+                    className + "Record",
+                    packageDecl + recordClass(visibility, className, instanceFields),
+                    element
+            );
+        }
+
+        if (indexKey != null) {
+            writeSourceFile(
+                    packageName,
+                    className + "Index",
+                    packageDecl + indexClass(visibility, className, indexKey),
+                    element
+            );
+        }
+
+        if (annotation.fixedLayout()) {
+            writeSourceFile(
+                    packageName,
+                    className + "View",
+                    packageDecl + viewClass(visibility, className, instanceFields, hasValidConstructor),
+                    element
+            );
+        }
+
+        if (annotation.pool()) {
+            writeSourceFile(
+                    packageName,
+                    className + "Pool",
+                    packageDecl + poolClass(visibility, className),
+                    element
+            );
+        }
+
+        if (annotation.propertyTable()) {
+            writeSourceFile(
+                    packageName,
+                    className + "Properties",
+                    packageDecl + propertiesClass(visibility, className, instanceFields),
+                    element
+            );
+        }
+
+        if (annotation.columns()) {
+            writeSourceFile(
+                    packageName,
+                    className + "Columns",
+                    packageDecl + columnsClass(visibility, className, instanceFields),
+                    element
+            );
+        }
     }
 }
@@ -1,19 +1,26 @@
 package dev.mccue.magicbean;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.File;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.lang.reflect.InvocationTargetException;
+import java.net.URL;
+import java.net.URLClassLoader;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Locale;
 import java.util.Set;
 
+import javax.tools.DiagnosticCollector;
 import javax.tools.JavaCompiler;
 import javax.tools.JavaCompiler.CompilationTask;
 import javax.tools.JavaFileObject;
@@ -58,11 +65,7 @@ class MagicBeanProcessorTest {
         });
     }
 
-    @Test
-    void testGeneration() throws Exception {
-        final String source =
-                Paths.get("src/test/resources/Example.java").toAbsolutePath().toString();
-
+    void compile(String... classNames) throws Exception {
         Javac.run(arguments -> {
             arguments
                     .__release(Integer.getInteger("java.specification.version"))
@@ -70,15 +73,361 @@ class MagicBeanProcessorTest {
                     ._d(tempDir.resolve("classes"))
                     .__module_path(tempDir.resolve("processor"))
                     .__add_modules("ALL-MODULE-PATH")
-                    .__processor_module_path(tempDir.resolve("processor"))
-                    .argument(source);
+                    .__processor_module_path(tempDir.resolve("processor"));
+            for (var className : classNames) {
+                arguments.argument(
+                        Paths.get("src/test/resources/" + className + ".java").toAbsolutePath().toString());
+            }
         });
+    }
+
+    String generated(String className) throws Exception {
+        return Files.readString(
+                tempDir.resolve("sources/dev/mccue/magicbean/models/valid/" + className + ".java").toAbsolutePath());
+    }
+
+    String generate(String className) throws Exception {
+        compile(className);
+        return generated(className + "BeanOps");
+    }
+
+    String expected(String className) throws Exception {
+        return Files.readString(Path.of("src/test/resources/expected/" + className + ".java.txt"));
+    }
+
+    /**
+     * Compiles a bean and collects the notes, warnings and errors reported on its source.
+     */
+    List<String> diagnostics(String className) throws Exception {
+        var compiler = ToolProvider.getSystemJavaCompiler();
+        var diagnostics = new DiagnosticCollector<JavaFileObject>();
+        Files.createDirectories(tempDir.resolve("sources"));
+        Files.createDirectories(tempDir.resolve("classes"));
+        try (var fileManager = compiler.getStandardFileManager(diagnostics, null, null)) {
+            compiler.getTask(
+                    null,
+                    fileManager,
+                    diagnostics,
+                    List.of(
+                            "--release", System.getProperty("java.specification.version"),
+                            "-s", tempDir.resolve("sources").toString(),
+                            "-d", tempDir.resolve("classes").toString(),
+                            "--module-path", tempDir.resolve("processor").toString(),
+                            "--add-modules", "ALL-MODULE-PATH",
+                            "--processor-module-path", tempDir.resolve("processor").toString()
+                    ),
+                    null,
+                    fileManager.getJavaFileObjects(Path.of("src/test/resources/" + className + ".java"))
+            ).call();
+        }
+        return diagnostics.getDiagnostics()
+                .stream()
+                .filter(diagnostic -> diagnostic.getSource() != null)
+                .map(diagnostic -> diagnostic.getKind() + ": " + diagnostic.getMessage(Locale.ROOT))
+                .toList();
+    }
+
+    /**
+     * Compiles a bean along with a check class, then calls the static run method of the check,
+     * which throws an AssertionError when the generated code misbehaves. Any other beans the
+     * check uses are compiled with it.
+     */
+    void check(String className, String... otherClassNames) throws Throwable {
+        var classNames = new ArrayList<>(List.of(otherClassNames));
+        classNames.add(className);
+        classNames.add(className + "Check");
+        compile(classNames.toArray(String[]::new));
+        try (var loader = new URLClassLoader(new URL[] { tempDir.resolve("classes").toUri().toURL() })) {
+            loader.loadClass("dev.mccue.magicbean.models.valid." + className + "Check")
+                    .getMethod("run")
+                    .invoke(null);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    @Test
+    void testGeneration() throws Exception {
+        assertEquals(expectedString, generate("Example"));
+    }
+
+    @Test
+    void testEqualsAndHashCodeGeneration() throws Exception {
+        assertEquals(expectedEqualsString, generate("EqualsExample"));
+    }
+
+    @Test
+    void testFootprintReport() throws Exception {
+        assertEquals(
+                List.of("""
+                        NOTE: Estimated layout of FootprintExample, assuming a 64 bit JVM with compressed oops and class pointers:
+                            offset  size  field
+                                 0    12  (object header)
+                                12     4  java.lang.String name
+                                16     8  long id
+                                24     4  FootprintExampleIndex index$
+                                28     1  boolean active
+                                       3  (padding and gaps)
+                          Total: 32 bytes"""),
+                diagnostics("FootprintExample")
+        );
+    }
+
+    @Test
+    void testFixedLayoutGeneration() throws Exception {
+        assertEquals(expected("FixedLayoutExampleBeanOps"), generate("FixedLayoutExample"));
+        assertEquals(expected("FixedLayoutExampleView"), generated("FixedLayoutExampleView"));
+    }
+
+    @Test
+    void testFixedLayoutRoundTrip() throws Throwable {
+        check("FixedLayoutExample");
+    }
+
+    @Test
+    void testEmptyFixedLayoutIsRejected() throws Exception {
+        assertTrue(diagnostics("FixedLayoutEmpty").contains("ERROR: Fixed layouts need at least one instance field."));
+    }
+
+    @Test
+    void testUnsupportedFieldsAreReported() throws Exception {
+        var errors = diagnostics("UnsupportedExample")
+                .stream()
+                .filter(diagnostic -> diagnostic.contains("Unsupported type"))
+                .toList();
+        assertEquals(
+                List.of(
+                        "ERROR: Unsupported type for the binary codec: java.lang.Object",
+                        "ERROR: Unsupported type for the binary codec: java.lang.Thread"
+                ),
+                errors
+        );
+    }
+
+    @Test
+    void testJdbcGeneration() throws Exception {
+        assertEquals(expected("JdbcExampleBeanOps"), generate("JdbcExample"));
+    }
+
+    @Test
+    void testJdbcRoundTrip() throws Throwable {
+        check("JdbcExample");
+    }
+
+    @Test
+    void testCachedHashCodeGeneration() throws Exception {
+        assertEquals(expected("CachedHashCodeExampleBeanOps"), generate("CachedHashCodeExample"));
+    }
+
+    @Test
+    void testCachedHashCodeRoundTrip() throws Throwable {
+        check("CachedHashCodeExample");
+    }
+
+    @Test
+    void testAppendToGeneration() throws Exception {
+        assertEquals(expected("AppendToExampleBeanOps"), generate("AppendToExample"));
+    }
+
+    @Test
+    void testToStringGeneration() throws Exception {
+        assertEquals(expected("ToStringExampleBeanOps"), generate("ToStringExample"));
+    }
 
-        var generated =
-                Files.readString(
-                        tempDir.resolve("sources/dev/mccue/magicbean/models/valid/ExampleBeanOps.java").toAbsolutePath());
+    @Test
+    void testAppendToMatchesToString() throws Throwable {
+        check("AppendToExample", "ToStringExample");
+    }
+
+    @Test
+    void testBinaryCodecGeneration() throws Exception {
+        assertEquals(expected("BinaryCodecExampleBeanOps"), generate("BinaryCodecExample"));
+    }
+
+    @Test
+    void testBinaryCodecRoundTrip() throws Throwable {
+        check("BinaryCodecExample");
+    }
+
+    @Test
+    void testColumnsGeneration() throws Exception {
+        assertEquals(expected("ColumnsExampleBeanOps"), generate("ColumnsExample"));
+        assertEquals(expected("ColumnsExampleColumns"), generated("ColumnsExampleColumns"));
+    }
+
+    @Test
+    void testDirtyTrackingGeneration() throws Exception {
+        assertEquals(expected("DirtyTrackingExampleBeanOps"), generate("DirtyTrackingExample"));
+    }
+
+    @Test
+    void testCopyGeneration() throws Exception {
+        assertEquals(expected("CopyExampleBeanOps"), generate("CopyExample"));
+    }
+
+    @Test
+    void testCopyRoundTrip() throws Throwable {
+        check("CopyExample");
+    }
+
+    @Test
+    void testPropertyTableGeneration() throws Exception {
+        assertEquals(expected("PropertyTableExampleBeanOps"), generate("PropertyTableExample"));
+        assertEquals(expected("PropertyTableExampleProperties"), generated("PropertyTableExampleProperties"));
+    }
+
+    @Test
+    void testComparatorsGeneration() throws Exception {
+        assertEquals(expected("ComparatorsExampleBeanOps"), generate("ComparatorsExample"));
+    }
+
+    @Test
+    void testComparatorOrdering() throws Throwable {
+        check("ComparatorsExample");
+    }
+
+    @Test
+    void testJsonGeneration() throws Exception {
+        assertEquals(expected("JsonExampleBeanOps"), generate("JsonExample"));
+    }
+
+    @Test
+    void testJsonRoundTrip() throws Throwable {
+        check("JsonExample");
+    }
+
+    @Test
+    void testAccessModeGeneration() throws Exception {
+        assertEquals(expected("AccessModeExampleBeanOps"), generate("AccessModeExample"));
+    }
+
+    @Test
+    void testPoolGeneration() throws Exception {
+        assertEquals(expected("PoolExampleBeanOps"), generate("PoolExample"));
+        assertEquals(expected("PoolExamplePool"), generated("PoolExamplePool"));
+    }
+
+    @Test
+    void testWriteCountersGeneration() throws Exception {
+        assertEquals(expected("WriteCountersExampleBeanOps"), generate("WriteCountersExample"));
+    }
+
+    @Test
+    void testLazyGeneration() throws Exception {
+        assertEquals(expected("LazyExampleBeanOps"), generate("LazyExample"));
+    }
+
+    @Test
+    void testLazyRoundTrip() throws Throwable {
+        check("LazyExample");
+    }
 
-        assertEquals(expectedString, generated);
+    @Test
+    void testRecordSnapshotGeneration() throws Exception {
+        assertEquals(expected("RecordSnapshotExampleBeanOps"), generate("RecordSnapshotExample"));
+        assertEquals(expected("RecordSnapshotExampleRecord"), generated("RecordSnapshotExampleRecord"));
+    }
+
+    @Test
+    void testMapViewGeneration() throws Exception {
+        assertEquals(expected("MapViewExampleBeanOps"), generate("MapViewExample"));
+    }
+
+    @Test
+    void testMapViewReadsAndWrites() throws Throwable {
+        check("MapViewExample");
+    }
+
+    @Test
+    void testLensesGeneration() throws Exception {
+        assertEquals(expected("LensesExampleBeanOps"), generate("LensesExample"));
+    }
+
+    @Test
+    void testLensRoundTrip() throws Throwable {
+        check("LensesExample");
+    }
+
+    @Test
+    void testValidationGeneration() throws Exception {
+        assertEquals(expected("ValidationExampleBeanOps"), generate("ValidationExample"));
+    }
+
+    @Test
+    void testHash64Generation() throws Exception {
+        assertEquals(expected("Hash64ExampleBeanOps"), generate("Hash64Example"));
+    }
+
+    @Test
+    void testHash64Values() throws Throwable {
+        check("Hash64Example");
+    }
+
+    @Test
+    void testIndexGeneration() throws Exception {
+        assertEquals(expected("IndexExampleBeanOps"), generate("IndexExample"));
+        assertEquals(expected("IndexExampleIndex"), generated("IndexExampleIndex"));
+    }
+
+    @Test
+    void testIndexRoundTrip() throws Throwable {
+        check("IndexExample");
+    }
+
+    @Test
+    void testTrackedIndexKeyMustBePlain() throws Exception {
+        assertTrue(diagnostics("IndexKeyVolatile").contains("ERROR: Tracked index keys must use the PLAIN access mode."));
+    }
+
+    @Test
+    void testResetRemovesFromIndex() throws Throwable {
+        check("IndexPoolExample");
+    }
+
+    @Test
+    void testLazyFieldsAreComparedThroughGetters() throws Throwable {
+        check("LazyCompareExample");
+    }
+
+    @Test
+    void testValidation() throws Throwable {
+        check("ValidationExample");
+    }
+
+    @Test
+    void testLazyFieldsAreValidatedThroughGetters() throws Throwable {
+        check("LazyValidationExample");
+    }
+
+    @Test
+    void testJdbcStaticGeneration() throws Exception {
+        assertEquals(expected("JdbcStaticExampleBeanOps"), generate("JdbcStaticExample"));
+    }
+
+    @Test
+    void testFixedLayoutStaticGeneration() throws Exception {
+        assertEquals(expected("FixedLayoutStaticExampleBeanOps"), generate("FixedLayoutStaticExample"));
+        assertEquals(expected("FixedLayoutStaticExampleView"), generated("FixedLayoutStaticExampleView"));
+    }
+
+    @Test
+    void testHash64StaticGeneration() throws Exception {
+        assertEquals(expected("Hash64StaticExampleBeanOps"), generate("Hash64StaticExample"));
+    }
+
+    @Test
+    void testAtomicWritesAreCounted() throws Throwable {
+        check("AtomicCountersExample");
+    }
+
+    @Test
+    void testPropertyTable() throws Throwable {
+        check("PropertyTableExample");
+    }
+
+    @Test
+    void testDirtyTracking() throws Throwable {
+        check("DirtyTrackingExample");
     }
 
     String expectedString =
@@ -134,4 +483,95 @@ class MagicBeanProcessorTest {
                         }
                     
                     }""";
+
+    String expectedEqualsString =
+            """
+                    package dev.mccue.magicbean.models.valid;
+                    
+                    sealed abstract class EqualsExampleBeanOps extends java.lang.Object permits EqualsExample {
+                    
+                        private EqualsExample self() {
+                            return (switch (this) { case EqualsExample __ -> __; });
+                        }
+                    
+                        /**
+                         * Get the current value for xs.
+                         */
+                        public int[] getXs() {
+                            return self().xs;
+                        }
+                    
+                        /**
+                         * Set the current value for xs.
+                         */
+                        public void setXs(int[] xs) {
+                            self().xs = xs;
+                        }
+                    
+                        /**
+                         * Get the current value for name.
+                         */
+                        public java.lang.String getName() {
+                            return self().name;
+                        }
+                    
+                        /**
+                         * Set the current value for name.
+                         */
+                        public void setName(java.lang.String name) {
+                            self().name = name;
+                        }
+                    
+                        /**
+                         * Get the current value for d.
+                         */
+                        public double getD() {
+                            return self().d;
+                        }
+                    
+                        /**
+                         * Set the current value for d.
+                         */
+                        public void setD(double d) {
+                            self().d = d;
+                        }
+                    
+                        /**
+                         * Get the current value for x.
+                         */
+                        public int getX() {
+                            return self().x;
+                        }
+                    
+                        /**
+                         * Set the current value for x.
+                         */
+                        public void setX(int x) {
+                            self().x = x;
+                        }
+                    
+                        @Override
+                        public boolean equals(Object o) {
+                            if (o == null || !(o instanceof EqualsExample other)) {
+                                return false;
+                            }
+                            else {
+                                return self().x == other.x &&
+                                       Double.compare(self().d, other.d) == 0 &&
+                                       java.util.Objects.equals(self().name, other.name) &&
+                                       java.util.Arrays.equals(self().xs, other.xs);
+                            }
+                        }
+                    
+                        @Override
+                        public int hashCode() {
+                            int h = 1;
+                            h = 31 * h + java.util.Arrays.hashCode(self().xs);
+                            h = 31 * h + java.util.Objects.hashCode(self().name);
+                            h = 31 * h + Double.hashCode(self().d);
+                            h = 31 * h + self().x;
+                            return h;
+                        }
+                    
+                    }""";
 }
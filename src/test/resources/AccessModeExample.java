@@ -0,0 +1,10 @@
+package dev.mccue.magicbean.models.valid;
+
+import dev.mccue.magicbean.MagicBean;
+
+@MagicBean(accessMode = MagicBean.AccessMode.VOLATILE)
+public final class AccessModeExample extends AccessModeExampleBeanOps {
+  int count;
+  @MagicBean.Access(MagicBean.AccessMode.PLAIN)
+  String name;
+}
@@ -0,0 +1,10 @@
+package dev.mccue.magicbean.models.valid;
+
+import dev.mccue.magicbean.MagicBean;
+
+@MagicBean(appendTo = true)
+public final class AppendToExample extends AppendToExampleBeanOps {
+  int x;
+  String name;
+  long[] values;
+}
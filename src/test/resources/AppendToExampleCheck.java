@@ -0,0 +1,38 @@
+package dev.mccue.magicbean.models.valid;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+public final class AppendToExampleCheck {
+  public static void run() throws IOException {
+    var values = new long[] { 1, 2 };
+    checkSameText(1, "a", values);
+    checkSameText(-5, null, values);
+    checkSameText(0, "", null);
+  }
+
+  static void checkSameText(int x, String name, long[] values) throws IOException {
+    var bean = new AppendToExample();
+    bean.setX(x);
+    bean.setName(name);
+    bean.setValues(values);
+    // ToStringExample has the same fields and only the plain generated toString
+    var plain = new ToStringExample();
+    plain.setX(x);
+    plain.setName(name);
+    plain.setValues(values);
+    var expected = plain.toString().replaceFirst("^ToStringExample", "AppendToExample");
+
+    check(bean.appendTo(new StringBuilder()).toString().equals(expected));
+    check(bean.appendTo(new StringBuilder("> ")).toString().equals("> " + expected));
+    check(bean.appendTo(new StringWriter()).toString().equals(expected));
+    Appendable builder = new StringBuilder();
+    check(bean.appendTo(builder).toString().equals(expected));
+  }
+
+  static void check(boolean condition) {
+    if (!condition) {
+      throw new AssertionError();
+    }
+  }
+}
@@ -0,0 +1,8 @@
+package dev.mccue.magicbean.models.valid;
+
+import dev.mccue.magicbean.MagicBean;
+
+@MagicBean(accessMode = MagicBean.AccessMode.VOLATILE, writeCounters = true, flightRecorderEvents = true)
+public final class AtomicCountersExample extends AtomicCountersExampleBeanOps {
+  int n;
+}
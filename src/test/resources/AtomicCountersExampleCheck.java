@@ -0,0 +1,20 @@
+package dev.mccue.magicbean.models.valid;
+
+public final class AtomicCountersExampleCheck {
+  public static void run() {
+    var bean = new AtomicCountersExample();
+    bean.setN(1);
+    check(bean.compareAndSetN(1, 2));
+    check(!bean.compareAndSetN(1, 3));
+    check(bean.getAndAddN(5) == 2);
+    check(bean.updateN(n -> n * 2) == 14);
+    check(bean.getN() == 14);
+    check(AtomicCountersExample.writeCounts().get("n") == 4L);
+  }
+
+  static void check(boolean condition) {
+    if (!condition) {
+      throw new AssertionError();
+    }
+  }
+}
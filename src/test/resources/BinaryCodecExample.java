@@ -0,0 +1,12 @@
+package dev.mccue.magicbean.models.valid;
+
+import dev.mccue.magicbean.MagicBean;
+
+@MagicBean(binaryCodec = true, externalizable = true, equalsAndHashCode = true)
+public final class BinaryCodecExample extends BinaryCodecExampleBeanOps {
+  int x;
+  Long boxed;
+  String name;
+  byte[] data;
+  Thread.State state;
+}
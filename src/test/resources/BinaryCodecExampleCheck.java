@@ -0,0 +1,50 @@
+package dev.mccue.magicbean.models.valid;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+
+public final class BinaryCodecExampleCheck {
+  public static void run() throws Exception {
+    var full = new BinaryCodecExample();
+    full.setX(-3);
+    full.setBoxed(1L << 40);
+    full.setName("caf\u00e9 \ud83d\ude00");
+    full.setData(new byte[] { 1, 2, 3 });
+    full.setState(Thread.State.BLOCKED);
+
+    for (var bean : new BinaryCodecExample[] { full, new BinaryCodecExample() }) {
+      var bytes = new ByteArrayOutputStream();
+      bean.writeTo(new DataOutputStream(bytes));
+      var fromStream = new BinaryCodecExample();
+      fromStream.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+      check(bean.equals(fromStream));
+
+      var buffer = ByteBuffer.allocate(64);
+      bean.writeTo(buffer);
+      check(buffer.position() == bytes.size());
+      buffer.flip();
+      var fromBuffer = new BinaryCodecExample();
+      fromBuffer.readFrom(buffer);
+      check(bean.equals(fromBuffer) && !buffer.hasRemaining());
+
+      var serialized = new ByteArrayOutputStream();
+      try (var out = new ObjectOutputStream(serialized)) {
+        out.writeObject(bean);
+      }
+      try (var in = new ObjectInputStream(new ByteArrayInputStream(serialized.toByteArray()))) {
+        check(bean.equals(in.readObject()));
+      }
+    }
+  }
+
+  static void check(boolean condition) {
+    if (!condition) {
+      throw new AssertionError();
+    }
+  }
+}
@@ -0,0 +1,9 @@
+package dev.mccue.magicbean.models.valid;
+
+import dev.mccue.magicbean.MagicBean;
+
+@MagicBean(equalsAndHashCode = true, cacheHashCode = true)
+public final class CachedHashCodeExample extends CachedHashCodeExampleBeanOps {
+  int x;
+  String name;
+}
@@ -0,0 +1,23 @@
+package dev.mccue.magicbean.models.valid;
+
+public final class CachedHashCodeExampleCheck {
+  public static void run() {
+    var bean = new CachedHashCodeExample();
+    bean.setX(1);
+    bean.setName("a");
+    int hashCode = bean.hashCode();
+    check(bean.hashCode() == hashCode);
+
+    bean.setName("b");
+    var other = new CachedHashCodeExample();
+    other.setX(1);
+    other.setName("b");
+    check(bean.equals(other) && bean.hashCode() == other.hashCode() && bean.hashCode() != hashCode);
+  }
+
+  static void check(boolean condition) {
+    if (!condition) {
+      throw new AssertionError();
+    }
+  }
+}
@@ -0,0 +1,9 @@
+package dev.mccue.magicbean.models.valid;
+
+import dev.mccue.magicbean.MagicBean;
+
+@MagicBean(columns = true)
+public final class ColumnsExample extends ColumnsExampleBeanOps {
+  int x;
+  String name;
+}
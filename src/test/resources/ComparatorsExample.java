@@ -0,0 +1,10 @@
+package dev.mccue.magicbean.models.valid;
+
+import dev.mccue.magicbean.MagicBean;
+
+@MagicBean(comparators = true, compareBy = {"name", "x"})
+public final class ComparatorsExample extends ComparatorsExampleBeanOps {
+  int x;
+  String name;
+  double score;
+}
@@ -0,0 +1,46 @@
+package dev.mccue.magicbean.models.valid;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+public final class ComparatorsExampleCheck {
+  public static void run() {
+    var a = bean(2, "b", 0.5);
+    var b = bean(1, "b", -1.0);
+    var c = bean(3, null, 2.0);
+    var d = bean(0, "a", Double.NaN);
+
+    // compareBy is name then x, with null names first
+    check(sorted(List.of(a, b, c, d), null).equals(List.of(c, d, b, a)));
+    check(a.compareTo(bean(2, "b", 9.0)) == 0);
+    check(c.compareTo(bean(3, null, 0.0)) == 0);
+    check(c.compareTo(d) < 0 && d.compareTo(c) > 0);
+
+    check(sorted(List.of(a, b, c, d), ComparatorsExample.BY_X).equals(List.of(d, b, a, c)));
+    check(sorted(List.of(a, b, c, d), ComparatorsExample.BY_NAME).subList(0, 2).equals(List.of(c, d)));
+    check(ComparatorsExample.BY_NAME.compare(a, b) == 0);
+    // Double.compare puts NaN last
+    check(sorted(List.of(a, b, c, d), ComparatorsExample.BY_SCORE).equals(List.of(b, a, c, d)));
+  }
+
+  static List<ComparatorsExample> sorted(List<ComparatorsExample> beans, Comparator<ComparatorsExample> comparator) {
+    var result = new ArrayList<>(beans);
+    result.sort(comparator);
+    return result;
+  }
+
+  static ComparatorsExample bean(int x, String name, double score) {
+    var bean = new ComparatorsExample();
+    bean.setX(x);
+    bean.setName(name);
+    bean.setScore(score);
+    return bean;
+  }
+
+  static void check(boolean condition) {
+    if (!condition) {
+      throw new AssertionError();
+    }
+  }
+}
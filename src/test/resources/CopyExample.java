@@ -0,0 +1,17 @@
+package dev.mccue.magicbean.models.valid;
+
+import dev.mccue.magicbean.MagicBean;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.SortedMap;
+
+@MagicBean(copyMethods = true, deepCopy = true, equalsAndHashCode = true)
+public final class CopyExample extends CopyExampleBeanOps {
+  int x;
+  int[] values;
+  List<String> names;
+  SortedMap<String, Integer> counts;
+  Collection<String> tags;
+  static int created;
+}
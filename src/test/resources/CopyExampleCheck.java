@@ -0,0 +1,41 @@
+package dev.mccue.magicbean.models.valid;
+
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.TreeMap;
+
+public final class CopyExampleCheck {
+  public static void run() {
+    CopyExample.created = 1;
+    var original = new CopyExample();
+    original.setX(4);
+    original.setValues(new int[] { 1, 2 });
+    original.setNames(List.of("a", "b"));
+    var counts = new TreeMap<String, Integer>(Comparator.reverseOrder());
+    counts.put("a", 1);
+    counts.put("b", 2);
+    original.setCounts(counts);
+    original.setTags(new HashSet<>(List.of("t")));
+
+    var copy = CopyExample.copyOf(original);
+    check(copy.equals(original));
+    check(copy.getValues() != original.getValues());
+    check(copy.getNames() != original.getNames());
+    check(copy.getCounts() != counts && copy.getCounts().firstKey().equals("b"));
+    check(copy.getTags() == original.getTags());
+
+    CopyExample.created = 2;
+    copy.copyFrom(original);
+    check(CopyExample.created == 2);
+
+    var empty = CopyExample.copyOf(new CopyExample());
+    check(empty.equals(new CopyExample()));
+  }
+
+  static void check(boolean condition) {
+    if (!condition) {
+      throw new AssertionError();
+    }
+  }
+}
@@ -0,0 +1,10 @@
+package dev.mccue.magicbean.models.valid;
+
+import dev.mccue.magicbean.MagicBean;
+
+@MagicBean(dirtyTracking = true)
+public final class DirtyTrackingExample extends DirtyTrackingExampleBeanOps {
+  int x;
+  static int created;
+  String name;
+}
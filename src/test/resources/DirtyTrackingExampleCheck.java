@@ -0,0 +1,32 @@
+package dev.mccue.magicbean.models.valid;
+
+public final class DirtyTrackingExampleCheck {
+  public static void run() {
+    var bean = new DirtyTrackingExample();
+    check(bean.dirtyFields() == 0);
+    bean.setName("a");
+    check(bean.dirtyFields() == 0b10);
+    bean.setCreated(1);
+    check(bean.dirtyFields() == 0b10);
+    bean.setX(1);
+    check(bean.dirtyFields() == 0b11);
+    bean.clearDirty();
+    check(bean.dirtyFields() == 0);
+
+    var other = new DirtyTrackingExample();
+    other.setX(1);
+    other.setName("a");
+    check(bean.diff(other) == 0);
+    other.setName("b");
+    check(bean.diff(other) == 0b10 && other.diff(bean) == 0b10);
+    other.setX(2);
+    other.setName(null);
+    check(bean.diff(other) == 0b11);
+  }
+
+  static void check(boolean condition) {
+    if (!condition) {
+      throw new AssertionError();
+    }
+  }
+}
@@ -0,0 +1,11 @@
+package dev.mccue.magicbean.models.valid;
+
+import dev.mccue.magicbean.MagicBean;
+
+@MagicBean(equalsAndHashCode = true)
+public final class EqualsExample extends EqualsExampleBeanOps {
+  int[] xs;
+  String name;
+  double d;
+  int x;
+}
@@ -0,0 +1,8 @@
+package dev.mccue.magicbean.models.invalid;
+
+import dev.mccue.magicbean.MagicBean;
+
+@MagicBean(fixedLayout = true)
+public final class FixedLayoutEmpty extends FixedLayoutEmptyBeanOps {
+  static int created;
+}
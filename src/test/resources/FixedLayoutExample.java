@@ -0,0 +1,11 @@
+package dev.mccue.magicbean.models.valid;
+
+import dev.mccue.magicbean.MagicBean;
+
+@MagicBean(fixedLayout = true)
+public final class FixedLayoutExample extends FixedLayoutExampleBeanOps {
+  long time;
+  double price;
+  boolean buy;
+  static int created;
+}
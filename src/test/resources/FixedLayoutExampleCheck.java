@@ -0,0 +1,42 @@
+package dev.mccue.magicbean.models.valid;
+
+import java.nio.ByteBuffer;
+
+public final class FixedLayoutExampleCheck {
+  public static void run() {
+    var buffer = ByteBuffer.allocate(FixedLayoutExample.FIXED_SIZE * 3);
+    for (int i = 0; i < 3; i++) {
+      var bean = new FixedLayoutExample();
+      bean.setTime(i);
+      bean.setPrice(i * 1.5);
+      bean.setBuy(i % 2 == 0);
+      bean.writeAt(buffer, i * FixedLayoutExample.FIXED_SIZE);
+    }
+    check(FixedLayoutExample.FIXED_SIZE == 17 && buffer.position() == 0);
+
+    var view = new FixedLayoutExampleView(buffer);
+    check(view.count() == 3);
+    for (int i = 0; i < view.count(); i++) {
+      view.at(i);
+      check(view.getTime() == i && view.getPrice() == i * 1.5 && view.isBuy() == (i % 2 == 0));
+    }
+
+    var bean = new FixedLayoutExample();
+    bean.readAt(buffer, 2 * FixedLayoutExample.FIXED_SIZE);
+    check(bean.getTime() == 2 && bean.getPrice() == 3.0 && bean.isBuy());
+
+    for (var index : new int[] { -1, 3 }) {
+      try {
+        view.at(index);
+        throw new AssertionError("at(" + index + ")");
+      } catch (IndexOutOfBoundsException e) {
+      }
+    }
+  }
+
+  static void check(boolean condition) {
+    if (!condition) {
+      throw new AssertionError();
+    }
+  }
+}
@@ -0,0 +1,9 @@
+package dev.mccue.magicbean.models.valid;
+
+import dev.mccue.magicbean.MagicBean;
+
+@MagicBean(fixedLayout = true)
+public final class FixedLayoutStaticExample extends FixedLayoutStaticExampleBeanOps {
+  int x;
+  static Object shared;
+}
@@ -0,0 +1,11 @@
+package dev.mccue.magicbean.models.valid;
+
+import dev.mccue.magicbean.MagicBean;
+
+@MagicBean(footprintReport = true)
+public final class FootprintExample extends FootprintExampleBeanOps {
+  @MagicBean.IndexKey(tracked = true)
+  long id;
+  boolean active;
+  String name;
+}
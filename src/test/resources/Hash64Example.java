@@ -0,0 +1,10 @@
+package dev.mccue.magicbean.models.valid;
+
+import dev.mccue.magicbean.MagicBean;
+
+@MagicBean(hash64 = true)
+public final class Hash64Example extends Hash64ExampleBeanOps {
+  int x;
+  String name;
+  long[] values;
+}
@@ -0,0 +1,31 @@
+package dev.mccue.magicbean.models.valid;
+
+public final class Hash64ExampleCheck {
+  public static void run() {
+    // Pinned values, which must not change between JVM runs or releases
+    check(new Hash64Example().hash64() == 7597160643969887493L);
+    check(bean(42, "caf\u00e9", new long[] { 1, -1 }).hash64() == 5787272993302149948L);
+    check(bean(42, "caf\u00e9", null).hash64() == -6924365340562718473L);
+
+    var a = bean(7, new String(new char[] { 'a', 'b' }), new long[] { 3 });
+    var b = bean(7, "ab", new long[] { 3 });
+    check(a.hash64() == b.hash64());
+    check(a.hash64() != bean(7, "ab", new long[] { 4 }).hash64());
+    check(a.hash64() != bean(7, "ba", new long[] { 3 }).hash64());
+    check(bean(0, null, null).hash64() != bean(0, "", new long[0]).hash64());
+  }
+
+  static Hash64Example bean(int x, String name, long[] values) {
+    var bean = new Hash64Example();
+    bean.setX(x);
+    bean.setName(name);
+    bean.setValues(values);
+    return bean;
+  }
+
+  static void check(boolean condition) {
+    if (!condition) {
+      throw new AssertionError();
+    }
+  }
+}
@@ -0,0 +1,9 @@
+package dev.mccue.magicbean.models.valid;
+
+import dev.mccue.magicbean.MagicBean;
+
+@MagicBean(hash64 = true)
+public final class Hash64StaticExample extends Hash64StaticExampleBeanOps {
+  int x;
+  static Object shared;
+}
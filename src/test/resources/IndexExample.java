@@ -0,0 +1,10 @@
+package dev.mccue.magicbean.models.valid;
+
+import dev.mccue.magicbean.MagicBean;
+
+@MagicBean
+public final class IndexExample extends IndexExampleBeanOps {
+  @MagicBean.IndexKey(tracked = true)
+  long id;
+  String name;
+}
@@ -0,0 +1,54 @@
+package dev.mccue.magicbean.models.valid;
+
+import java.util.HashMap;
+import java.util.Random;
+
+public final class IndexExampleCheck {
+  public static void run() {
+    var index = new IndexExampleIndex(0);
+    var expected = new HashMap<Long, IndexExample>();
+    var random = new Random(42);
+    for (int i = 0; i < 10_000; i++) {
+      long key = random.nextInt(500) - 250;
+      switch (random.nextInt(3)) {
+        case 0 -> {
+          var bean = expected.get(key);
+          if (bean == null) {
+            bean = new IndexExample();
+            bean.setId(key);
+            index.put(bean);
+            expected.put(key, bean);
+          }
+        }
+        case 1 -> check(index.remove(key) == expected.remove(key));
+        default -> {
+          var bean = expected.get(key);
+          long newKey = random.nextInt(500) - 250;
+          if (bean != null && !expected.containsKey(newKey)) {
+            bean.setId(newKey);
+            expected.remove(key);
+            expected.put(newKey, bean);
+          }
+        }
+      }
+      check(index.size() == expected.size());
+    }
+    for (long key = -250; key < 250; key++) {
+      check(index.get(key) == expected.get(key));
+      check(index.containsKey(key) == expected.containsKey(key));
+    }
+
+    var removed = index.remove(expected.keySet().iterator().next());
+    removed.setId(1_000);
+    check(!index.containsKey(1_000));
+
+    index.clear();
+    check(index.size() == 0);
+  }
+
+  static void check(boolean condition) {
+    if (!condition) {
+      throw new AssertionError();
+    }
+  }
+}
@@ -0,0 +1,9 @@
+package dev.mccue.magicbean.models.invalid;
+
+import dev.mccue.magicbean.MagicBean;
+
+@MagicBean(accessMode = MagicBean.AccessMode.VOLATILE)
+public final class IndexKeyVolatile extends IndexKeyVolatileBeanOps {
+  @MagicBean.IndexKey(tracked = true)
+  long id;
+}
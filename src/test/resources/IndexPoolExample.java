@@ -0,0 +1,10 @@
+package dev.mccue.magicbean.models.valid;
+
+import dev.mccue.magicbean.MagicBean;
+
+@MagicBean(reset = true, pool = true)
+public final class IndexPoolExample extends IndexPoolExampleBeanOps {
+  @MagicBean.IndexKey(tracked = true)
+  long id;
+  String name;
+}
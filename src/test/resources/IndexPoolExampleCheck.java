@@ -0,0 +1,29 @@
+package dev.mccue.magicbean.models.valid;
+
+public final class IndexPoolExampleCheck {
+  public static void run() {
+    var index = new IndexPoolExampleIndex();
+    var pool = new IndexPoolExamplePool();
+    var zero = pool.acquire();
+    index.put(zero);
+    var released = pool.acquire();
+    released.setId(5);
+    index.put(released);
+    check(index.size() == 2);
+
+    pool.release(released);
+    check(released.getId() == 0);
+    check(index.size() == 1 && index.get(0) == zero && !index.containsKey(5));
+
+    zero.reset();
+    check(index.size() == 0);
+    zero.setId(3);
+    check(index.size() == 0);
+  }
+
+  static void check(boolean condition) {
+    if (!condition) {
+      throw new AssertionError();
+    }
+  }
+}
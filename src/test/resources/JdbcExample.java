@@ -0,0 +1,11 @@
+package dev.mccue.magicbean.models.valid;
+
+import dev.mccue.magicbean.MagicBean;
+
+@MagicBean(jdbc = true)
+public final class JdbcExample extends JdbcExampleBeanOps {
+  long id;
+  Integer o;
+  String name;
+  Thread.State state;
+}
@@ -0,0 +1,71 @@
+package dev.mccue.magicbean.models.valid;
+
+import java.lang.reflect.Proxy;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.Map;
+import java.util.TreeMap;
+
+public final class JdbcExampleCheck {
+  public static void run() throws Exception {
+    var bean = JdbcExample.fromRow(resultSet(7L, 3, "a", "NEW"));
+    check(bean.getId() == 7L && bean.getO() == 3 && bean.getName().equals("a") && bean.getState() == Thread.State.NEW);
+
+    var nulls = JdbcExample.fromRow(resultSet(8L, null, null, null));
+    check(nulls.getO() == null && nulls.getName() == null && nulls.getState() == null);
+
+    var parameters = new TreeMap<Integer, Object>();
+    var next = bean.bind(preparedStatement(parameters), 4);
+    check(next == 8);
+    check(parameters.equals(Map.of(5, 7L, 6, 3, 7, "a", 8, "NEW")));
+
+    parameters.clear();
+    nulls.bind(preparedStatement(parameters), 0);
+    check(parameters.equals(Map.of(1, 8L, 2, "NULL", 3, "NULL", 4, "NULL")));
+  }
+
+  /**
+   * A ResultSet positioned on a single row holding the given column values.
+   */
+  static ResultSet resultSet(Object... row) {
+    var wasNull = new boolean[1];
+    return (ResultSet) Proxy.newProxyInstance(
+        ResultSet.class.getClassLoader(),
+        new Class<?>[] { ResultSet.class },
+        (proxy, method, arguments) -> {
+          if (method.getName().equals("wasNull")) {
+            return wasNull[0];
+          }
+          var value = row[(int) arguments[0] - 1];
+          wasNull[0] = value == null;
+          return switch (method.getName()) {
+            case "getInt" -> value == null ? 0 : value;
+            case "getLong" -> value == null ? 0L : value;
+            case "getString" -> value;
+            default -> throw new UnsupportedOperationException(method.getName());
+          };
+        }
+    );
+  }
+
+  /**
+   * A PreparedStatement which records each bound parameter, with "NULL" for setNull and null strings.
+   */
+  static PreparedStatement preparedStatement(Map<Integer, Object> parameters) {
+    return (PreparedStatement) Proxy.newProxyInstance(
+        PreparedStatement.class.getClassLoader(),
+        new Class<?>[] { PreparedStatement.class },
+        (proxy, method, arguments) -> {
+          var value = method.getName().equals("setNull") || arguments[1] == null ? "NULL" : arguments[1];
+          parameters.put((Integer) arguments[0], value);
+          return null;
+        }
+    );
+  }
+
+  static void check(boolean condition) {
+    if (!condition) {
+      throw new AssertionError();
+    }
+  }
+}
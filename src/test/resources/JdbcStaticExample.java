@@ -0,0 +1,9 @@
+package dev.mccue.magicbean.models.valid;
+
+import dev.mccue.magicbean.MagicBean;
+
+@MagicBean(jdbc = true)
+public final class JdbcStaticExample extends JdbcStaticExampleBeanOps {
+  long id;
+  static Object shared;
+}
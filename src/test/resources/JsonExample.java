@@ -0,0 +1,12 @@
+package dev.mccue.magicbean.models.valid;
+
+import dev.mccue.magicbean.MagicBean;
+
+@MagicBean(json = true, equalsAndHashCode = true)
+public final class JsonExample extends JsonExampleBeanOps {
+  int x;
+  Double ratio;
+  String name;
+  boolean on;
+  Thread.State state;
+}
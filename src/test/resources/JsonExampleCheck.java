@@ -0,0 +1,58 @@
+package dev.mccue.magicbean.models.valid;
+
+import java.io.StringReader;
+
+public final class JsonExampleCheck {
+  public static void run() throws Exception {
+    var bean = new JsonExample();
+    bean.setX(-7);
+    bean.setRatio(0.25);
+    bean.setName("quote \" slash \\ line\n tab\t \u0001 caf\u00e9");
+    bean.setOn(true);
+    bean.setState(Thread.State.WAITING);
+
+    for (var original : new JsonExample[] { bean, new JsonExample() }) {
+      var json = original.writeJson(new StringBuilder()).toString();
+      var fromString = new JsonExample();
+      fromString.readJson(json);
+      check(original.equals(fromString), json);
+      var fromReader = new JsonExample();
+      fromReader.readJson(new StringReader(json));
+      check(original.equals(fromReader), json);
+    }
+
+    var parsed = new JsonExample();
+    parsed.readJson(" { \"unknown\" : [1, {\"a\": null}, \"}\"], \"x\": 12, \"name\": \"\\u0041\" } ");
+    check(parsed.getX() == 12 && parsed.getName().equals("A"), "unknown properties");
+
+    for (var malformed : new String[] {
+        "",
+        "[]",
+        "{",
+        "{\"x\": 1",
+        "{\"x\": 1,}",
+        "{\"x\" 1}",
+        "{null: 1}",
+        "{x: 1}",
+        "{\"x\": \"1\"}",
+        "{\"x\": 1.5}",
+        "{\"x\": 99999999999}",
+        "{\"on\": 1}",
+        "{\"state\": \"SLEEPING\"}",
+        "{\"name\": \"unterminated}",
+        "{\"x\": 1} trailing"
+    }) {
+      try {
+        new JsonExample().readJson(malformed);
+        throw new AssertionError("Accepted " + malformed);
+      } catch (IllegalArgumentException e) {
+      }
+    }
+  }
+
+  static void check(boolean condition, String message) {
+    if (!condition) {
+      throw new AssertionError(message);
+    }
+  }
+}
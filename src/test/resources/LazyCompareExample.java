@@ -0,0 +1,14 @@
+package dev.mccue.magicbean.models.valid;
+
+import dev.mccue.magicbean.MagicBean;
+
+@MagicBean(equalsAndHashCode = true, comparators = true, compareBy = "v", dirtyTracking = true)
+public final class LazyCompareExample extends LazyCompareExampleBeanOps implements Comparable<LazyCompareExample> {
+  int base;
+  @MagicBean.Lazy("twice")
+  Integer v;
+
+  Integer twice() {
+    return base * 2;
+  }
+}
@@ -0,0 +1,27 @@
+package dev.mccue.magicbean.models.valid;
+
+public final class LazyCompareExampleCheck {
+  public static void run() {
+    var computed = new LazyCompareExample();
+    computed.setBase(2);
+    computed.getV();
+    var pending = new LazyCompareExample();
+    pending.setBase(2);
+
+    check(computed.equals(pending));
+    check(computed.diff(pending) == 0 && pending.diff(computed) == 0);
+    check(LazyCompareExample.BY_V.compare(computed, pending) == 0);
+    check(LazyCompareExample.BY_V.compare(pending, computed) == 0);
+    check(computed.compareTo(pending) == 0 && pending.compareTo(computed) == 0);
+
+    var larger = new LazyCompareExample();
+    larger.setBase(3);
+    check(LazyCompareExample.BY_V.compare(pending, larger) < 0 && larger.compareTo(pending) > 0);
+  }
+
+  static void check(boolean condition) {
+    if (!condition) {
+      throw new AssertionError();
+    }
+  }
+}
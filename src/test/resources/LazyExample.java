@@ -0,0 +1,20 @@
+package dev.mccue.magicbean.models.valid;
+
+import dev.mccue.magicbean.MagicBean;
+
+@MagicBean(equalsAndHashCode = true, cacheHashCode = true, copyMethods = true)
+public final class LazyExample extends LazyExampleBeanOps {
+  String text;
+  @MagicBean.Lazy("upper")
+  String shout;
+  @MagicBean.Lazy(value = "length", threadSafe = true)
+  Integer length;
+
+  String upper() {
+    return text == null ? null : text.toUpperCase();
+  }
+
+  Integer length() {
+    return text == null ? null : text.length();
+  }
+}
@@ -0,0 +1,27 @@
+package dev.mccue.magicbean.models.valid;
+
+public final class LazyExampleCheck {
+  public static void run() {
+    var bean = new LazyExample();
+    bean.setText("hi");
+    var copy = LazyExample.copyOf(bean);
+    check("HI".equals(copy.getShout()) && copy.getLength() == 2);
+    check(copy.equals(bean) && copy.hashCode() == bean.hashCode());
+
+    var cached = new LazyExample();
+    cached.setText("abc");
+    int hashCode = cached.hashCode();
+    check(cached.getShout().equals("ABC") && cached.getLength() == 3 && cached.hashCode() == hashCode);
+    cached.setText("abcd");
+    check(cached.getShout().equals("ABC") && cached.hashCode() != hashCode);
+
+    bean.setShout(null);
+    check(bean.getShout() == null);
+  }
+
+  static void check(boolean condition) {
+    if (!condition) {
+      throw new AssertionError();
+    }
+  }
+}
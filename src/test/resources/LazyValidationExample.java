@@ -0,0 +1,15 @@
+package dev.mccue.magicbean.models.valid;
+
+import dev.mccue.magicbean.MagicBean;
+
+@MagicBean
+public final class LazyValidationExample extends LazyValidationExampleBeanOps {
+  String text;
+  @MagicBean.Lazy("upper")
+  @MagicBean.NotNull
+  String shout;
+
+  String upper() {
+    return text == null ? null : text.toUpperCase();
+  }
+}
@@ -0,0 +1,21 @@
+package dev.mccue.magicbean.models.valid;
+
+import java.util.List;
+
+public final class LazyValidationExampleCheck {
+  public static void run() {
+    var bean = new LazyValidationExample();
+    bean.setText("a");
+    check(bean.validate().isEmpty());
+    check(bean.getShout().equals("A"));
+
+    var missing = new LazyValidationExample();
+    check(missing.validate().equals(List.of("shout must not be null")));
+  }
+
+  static void check(boolean condition) {
+    if (!condition) {
+      throw new AssertionError();
+    }
+  }
+}
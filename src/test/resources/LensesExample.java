@@ -0,0 +1,10 @@
+package dev.mccue.magicbean.models.valid;
+
+import dev.mccue.magicbean.MagicBean;
+
+@MagicBean(lenses = true)
+public final class LensesExample extends LensesExampleBeanOps {
+  int x;
+  double ratio;
+  String name;
+}
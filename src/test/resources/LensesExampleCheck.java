@@ -0,0 +1,38 @@
+package dev.mccue.magicbean.models.valid;
+
+import java.util.function.Function;
+
+public final class LensesExampleCheck {
+  public static void run() {
+    var bean = new LensesExample();
+
+    LensesExample.X.accept(bean, 7);
+    check(bean.getX() == 7);
+    check(LensesExample.X.applyAsInt(bean) == 7);
+
+    LensesExample.RATIO.accept(bean, 0.25);
+    check(bean.getRatio() == 0.25);
+    check(LensesExample.RATIO.applyAsDouble(bean) == 0.25);
+
+    LensesExample.NAME.accept(bean, "a");
+    check("a".equals(bean.getName()));
+    check("a".equals(LensesExample.NAME.apply(bean)));
+    LensesExample.NAME.accept(bean, null);
+    check(LensesExample.NAME.apply(bean) == null);
+
+    // Setting through the setter is visible through the lens
+    bean.setX(-1);
+    check(LensesExample.X.applyAsInt(bean) == -1);
+    Function<LensesExample, Integer> length = LensesExample.NAME.andThen(name -> name == null ? 0 : name.length());
+    check(length.apply(bean) == 0);
+
+    check(LensesExample.RATIO.name().equals("ratio"));
+    check(LensesExample.NAME.toString().equals("LensesExample.name"));
+  }
+
+  static void check(boolean condition) {
+    if (!condition) {
+      throw new AssertionError();
+    }
+  }
+}
@@ -0,0 +1,9 @@
+package dev.mccue.magicbean.models.valid;
+
+import dev.mccue.magicbean.MagicBean;
+
+@MagicBean(mapView = true)
+public final class MapViewExample extends MapViewExampleBeanOps {
+  int x;
+  String name;
+}
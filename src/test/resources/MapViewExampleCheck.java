@@ -0,0 +1,51 @@
+package dev.mccue.magicbean.models.valid;
+
+import java.util.Map;
+
+public final class MapViewExampleCheck {
+  public static void run() {
+    var bean = new MapViewExample();
+    bean.setX(3);
+    bean.setName("a");
+    var map = bean.asMap();
+
+    check(map.size() == 2);
+    check(map.equals(Map.of("x", 3, "name", "a")));
+    check(map.get("missing") == null);
+    check(!map.containsKey("missing"));
+
+    // Writes go through to the bean and return the previous value
+    check(map.put("x", 5).equals(3));
+    check(bean.getX() == 5);
+    check(map.put("name", null).equals("a"));
+    check(bean.getName() == null);
+    check(map.containsKey("name"));
+    bean.setName("b");
+    check("b".equals(map.get("name")));
+
+    try {
+      map.put("x", null);
+      check(false);
+    } catch (NullPointerException e) {
+      check(bean.getX() == 5);
+    }
+    try {
+      map.put("x", "5");
+      check(false);
+    } catch (ClassCastException e) {
+      check(bean.getX() == 5);
+    }
+    try {
+      map.put("missing", 1);
+      check(false);
+    } catch (IllegalArgumentException e) {
+      check(map.size() == 2);
+    }
+  }
+
+  static void check(boolean condition) {
+    if (!condition) {
+      throw new AssertionError();
+    }
+  }
+}
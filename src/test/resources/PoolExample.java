@@ -0,0 +1,9 @@
+package dev.mccue.magicbean.models.valid;
+
+import dev.mccue.magicbean.MagicBean;
+
+@MagicBean(reset = true, pool = true)
+public final class PoolExample extends PoolExampleBeanOps {
+  int x;
+  String name;
+}
@@ -0,0 +1,10 @@
+package dev.mccue.magicbean.models.valid;
+
+import dev.mccue.magicbean.MagicBean;
+
+@MagicBean(propertyTable = true)
+public final class PropertyTableExample extends PropertyTableExampleBeanOps {
+  int x;
+  String name;
+  static int created;
+}
@@ -0,0 +1,25 @@
+package dev.mccue.magicbean.models.valid;
+
+public final class PropertyTableExampleCheck {
+  public static void run() {
+    check(PropertyTableExampleProperties.COUNT == 2);
+    check(PropertyTableExampleProperties.indexOf("created") == -1);
+
+    var bean = new PropertyTableExample();
+    for (int i = 0; i < PropertyTableExampleProperties.COUNT; i++) {
+      var name = PropertyTableExampleProperties.name(i);
+      check(PropertyTableExampleProperties.indexOf(name) == i);
+    }
+    PropertyTableExampleProperties.set(bean, PropertyTableExampleProperties.indexOf("x"), 3);
+    PropertyTableExampleProperties.set(bean, PropertyTableExampleProperties.indexOf("name"), "a");
+    check(bean.getX() == 3 && bean.getName().equals("a"));
+    check(PropertyTableExampleProperties.get(bean, 0).equals(3));
+    check(PropertyTableExampleProperties.type(1) == String.class);
+  }
+
+  static void check(boolean condition) {
+    if (!condition) {
+      throw new AssertionError();
+    }
+  }
+}
@@ -0,0 +1,9 @@
+package dev.mccue.magicbean.models.valid;
+
+import dev.mccue.magicbean.MagicBean;
+
+@MagicBean(recordSnapshot = true)
+public final class RecordSnapshotExample extends RecordSnapshotExampleBeanOps {
+  int x;
+  String name;
+}
@@ -0,0 +1,10 @@
+package dev.mccue.magicbean.models.valid;
+
+import dev.mccue.magicbean.MagicBean;
+
+@MagicBean(toString_ = true)
+public final class ToStringExample extends ToStringExampleBeanOps {
+  int x;
+  String name;
+  long[] values;
+}
@@ -0,0 +1,11 @@
+package dev.mccue.magicbean.models.invalid;
+
+import dev.mccue.magicbean.MagicBean;
+
+@MagicBean(binaryCodec = true)
+public final class UnsupportedExample extends UnsupportedExampleBeanOps {
+  int x;
+  Object value;
+  Thread thread;
+  static Object shared;
+}
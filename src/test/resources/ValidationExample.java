@@ -0,0 +1,13 @@
+package dev.mccue.magicbean.models.valid;
+
+import dev.mccue.magicbean.MagicBean;
+
+@MagicBean(validateInSetters = true)
+public final class ValidationExample extends ValidationExampleBeanOps {
+  @MagicBean.Min(0)
+  @MagicBean.Max(10)
+  int x;
+  @MagicBean.NotNull
+  @MagicBean.Size(min = 1, max = 3)
+  String name;
+}
@@ -0,0 +1,41 @@
+package dev.mccue.magicbean.models.valid;
+
+import java.util.List;
+
+public final class ValidationExampleCheck {
+  public static void run() {
+    var bean = new ValidationExample();
+    bean.setX(10);
+    bean.setName("abc");
+    check(bean.validate().isEmpty());
+
+    rejects(() -> bean.setX(-1), "x must be at least 0");
+    rejects(() -> bean.setX(11), "x must be at most 10");
+    rejects(() -> bean.setName(null), "name must not be null");
+    rejects(() -> bean.setName(""), "name must have a size between 1 and 3");
+    rejects(() -> bean.setName("abcd"), "name must have a size between 1 and 3");
+    check(bean.getX() == 10 && bean.getName().equals("abc"));
+
+    bean.x = 11;
+    bean.name = "abcd";
+    check(bean.validate().equals(List.of("x must be at most 10", "name must have a size between 1 and 3")));
+    bean.x = -1;
+    bean.name = null;
+    check(bean.validate().equals(List.of("x must be at least 0", "name must not be null")));
+  }
+
+  static void rejects(Runnable set, String message) {
+    try {
+      set.run();
+      throw new AssertionError("Accepted a value which should fail with: " + message);
+    } catch (IllegalArgumentException e) {
+      check(e.getMessage().equals(message));
+    }
+  }
+
+  static void check(boolean condition) {
+    if (!condition) {
+      throw new AssertionError();
+    }
+  }
+}
@@ -0,0 +1,8 @@
+package dev.mccue.magicbean.models.valid;
+
+import dev.mccue.magicbean.MagicBean;
+
+@MagicBean(writeCounters = true, flightRecorderEvents = true)
+public final class WriteCountersExample extends WriteCountersExampleBeanOps {
+  int x;
+}